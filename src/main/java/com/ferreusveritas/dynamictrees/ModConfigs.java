@@ -2,6 +2,7 @@ package com.ferreusveritas.dynamictrees;
 
 
 import com.ferreusveritas.dynamictrees.blocks.BlockBranch.EnumAxeDamage;
+import com.ferreusveritas.dynamictrees.blocks.BlockBranch.EnumLoopRepair;
 import net.minecraftforge.common.config.Configuration;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
 
@@ -51,6 +52,27 @@ public class ModConfigs {
 	public static boolean fancyThickRings;
 
 	public static boolean worldGenDebug;
+	public static boolean verifyBlockAccess;
+
+	public static boolean iterativeBranchAnalysis;
+	public static boolean treeSkeletonCache;
+	public static boolean treeRootIndex;
+	public static boolean sectionBlockAccess;
+	public static EnumLoopRepair branchLoopRepair;
+	public static boolean treeGrowthScheduler;
+	public static float treeGrowthBudget;
+	public static boolean asyncTreeGrowth;
+	public static int asyncTreeGrowthThreads;
+	public static boolean fastForwardGrowth;
+	public static boolean treeDormancy;
+	public static int catchUpGrowth;
+	public static boolean leafAgingQueue;
+	public static float leafAgingBudget;
+	public static boolean worldGenLeafSolver;
+	public static boolean columnLightCache;
+	public static boolean blockWriteBatch;
+	public static boolean leafNotifyFilter;
+	public static int poissonDiscCacheSize;
 
 	public static boolean enableSeasonalSeedDropFactor;
 	public static boolean enableSeasonalGrowthFactor;
@@ -118,6 +140,28 @@ public class ModConfigs {
 
 		//Debug
 		worldGenDebug = config.getBoolean("worldGenDebug", "debug", false, "Enable to mark tree spawn locations with wool circles.");
+		verifyBlockAccess = config.getBoolean("verifyBlockAccess", "debug", false, "Enable to check every block read made through the pinned chunk section access against the world and log any difference.");
+
+		//Performance
+		iterativeBranchAnalysis = config.getBoolean("iterativeBranchAnalysis", "performance", false, "If enabled branch networks are mapped with an explicit stack instead of recursion. Produces less garbage when analysing large trees");
+		treeSkeletonCache = config.getBoolean("treeSkeletonCache", "performance", true, "If enabled the endpoints and branch radii of each tree are remembered until a block change touches the tree. Saves mapping unchanged trees on every growth tick");
+		treeRootIndex = config.getBoolean("treeRootIndex", "performance", true, "If enabled the root of every branch is remembered and saved with the chunk so the root of a tree can be found without mapping the whole tree");
+		sectionBlockAccess = config.getBoolean("sectionBlockAccess", "performance", true, "If enabled tree growth, rot, leaf aging and destruction read blocks straight from the chunk sections of the tree instead of looking up the chunk for every block");
+		treeGrowthScheduler = config.getBoolean("treeGrowthScheduler", "performance", false, "If enabled tree updates from random ticks are queued and run at the end of the world tick within treeGrowthBudget. Trees grow at the same average rate but the time spent per tick is capped");
+		treeGrowthBudget = config.getFloat("treeGrowthBudget", "performance", 2.0f, 0.1f, 50.0f, "Milliseconds per world tick the tree growth scheduler may spend on tree updates");
+		asyncTreeGrowth = config.getBoolean("asyncTreeGrowth", "performance", false, "Experimental. If enabled growth signals of trees with stock growth are sent on worker threads and the resulting block changes are applied at the end of the world tick. Changes are discarded and retried if the blocks they were based on changed in the meantime");
+		asyncTreeGrowthThreads = config.getInt("asyncTreeGrowthThreads", "performance", Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1)), 1, 32, "Number of worker threads used by asyncTreeGrowth. Takes effect after a restart");
+		fastForwardGrowth = config.getBoolean("fastForwardGrowth", "performance", true, "If enabled several growth pulses in a row(bonemeal, the growpulse command) are worked out in memory and set in the world in one pass with the leaves aged once instead of per pulse");
+		treeDormancy = config.getBoolean("treeDormancy", "performance", false, "If enabled trees whose growth signals keep running out of energy skip most of their growth signals until they can grow again");
+		catchUpGrowth = config.getInt("catchUpGrowth", "performance", 0, 0, 64, "Maximum number of updates given to each tree in a chunk when it's loaded again to make up for the time it was unloaded. 0 to disable");
+		leafAgingQueue = config.getBoolean("leafAgingQueue", "performance", false, "If enabled leaf ticks queue the leaves to be aged at the end of the world tick within leafAgingBudget instead of aging them right away. A leaf that's ticked again before it's aged is only aged once");
+		leafAgingBudget = config.getFloat("leafAgingBudget", "performance", 1.0f, 0.1f, 50.0f, "Milliseconds per world tick that may be spent aging queued leaves");
+		worldGenLeafSolver = config.getBoolean("worldGenLeafSolver", "performance", false, "Experimental. If enabled the leaves of generated trees are settled in memory and only the final leaves are placed instead of placing the leaves and aging them in the world. No new leaves are grown and custom leaves aging is skipped so the canopies come out different. Compare with /dt leafsolvercheck");
+		columnLightCache = config.getBoolean("columnLightCache", "performance", true, "If enabled the sky visibility and the tree parts above leaves checking their light are cached per block column for the rest of the tick");
+		blockWriteBatch = config.getBoolean("blockWriteBatch", "performance", true, "If enabled the leaves set while aging leaves and placing generated canopies are set together at the end of the operation with the neighbors and clients notified afterwards instead of one block at a time");
+		leafNotifyFilter = config.getBoolean("leafNotifyFilter", "performance", true, "If enabled neighbor notifications are only checked for dynamic leaves in chunk sections that may hold some. Only applies when Fast Leaf Decay is installed");
+		poissonDiscCacheSize = config.getInt("poissonDiscCacheSize", "performance", 4096, 256, 65536, "Number of chunk disc sets kept per dimension before the least recently used empty ones are dropped. Sets of loaded chunks that hold discs are always kept");
+		branchLoopRepair = EnumLoopRepair.values()[config.getInt("branchLoopRepair", "performance", 1, 0, 3, "How looped branch networks are handled. Modes: 0=Legacy, walk the loop until the signal overflows and break the node it's on, 1=Detect the loop and break its thinnest(most recently grown) node, 2=Detect the loop and break the node that closed it, 3=Detect the loop and leave it alone")];
 
 		// Serene seasons integration options. At some point this may be made fully configurable via json files. 
 		enableSeasonalSeedDropFactor = config.getBoolean("enableSeasonalSeedDropFactor", "integration", true, "If enabled, seed drop rates will be multiplied based on the current season (requires serene seasons).");
@@ -1,14 +1,22 @@
 package com.ferreusveritas.dynamictrees.api;
 
 import com.ferreusveritas.dynamictrees.ModBlocks;
+import com.ferreusveritas.dynamictrees.ModConfigs;
 import com.ferreusveritas.dynamictrees.api.network.MapSignal;
 import com.ferreusveritas.dynamictrees.api.treedata.ITreePart;
 import com.ferreusveritas.dynamictrees.blocks.*;
 import com.ferreusveritas.dynamictrees.blocks.BlockTrunkShell.ShellMuse;
+import com.ferreusveritas.dynamictrees.systems.AsyncTreeGrowth;
+import com.ferreusveritas.dynamictrees.systems.TreeRootIndex;
+import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeRootIndexer;
 import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeTwinkle;
 import com.ferreusveritas.dynamictrees.trees.Species;
+import com.ferreusveritas.dynamictrees.util.BlockWriteBatch;
+import com.ferreusveritas.dynamictrees.util.CompiledVoxmap;
 import com.ferreusveritas.dynamictrees.util.Deprecatron;
+import com.ferreusveritas.dynamictrees.util.LongSet;
 import com.ferreusveritas.dynamictrees.util.SafeChunkBounds;
+import com.ferreusveritas.dynamictrees.util.SectionBlockAccess;
 import com.ferreusveritas.dynamictrees.util.SimpleVoxmap;
 import com.ferreusveritas.dynamictrees.worldgen.JoCode;
 import net.minecraft.block.Block;
@@ -19,13 +27,18 @@ import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.BlockPos.MutableBlockPos;
 import net.minecraft.world.IBlockAccess;
 import net.minecraft.world.World;
+import net.minecraft.world.WorldType;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Optional;
 
 public class TreeHelper {
 
 	public static final ITreePart nullTreePart = new NullTreePart();
 
+	private static final int MAXROOTWALK = 64;//Branches visited checking that an indexed root is connected.  Plus 4 per block away
+
 	///////////////////////////////////////////
 	//CONVENIENCE METHODS
 	///////////////////////////////////////////
@@ -46,6 +59,58 @@ public class TreeHelper {
 		}
 	}
 
+	/**
+	 * Convenience method to pulse a number of growth cycles.  With the fastForwardGrowth config option all but the last
+	 * cycle of trees with stock growth are worked out in memory and set in the world in one pass.  The last cycle is a regular
+	 * {@link #growPulse(World, BlockPos)} which ages the cuboid volume once for the lot.
+	 *
+	 * @param world
+	 * @param rootPos
+	 * @param pulses  The number of growth cycles
+	 */
+	public static void growPulses(World world, BlockPos rootPos, int pulses) {
+		if (pulses > 1 && ModConfigs.fastForwardGrowth && !world.isRemote) {
+			IBlockState rootyState = world.getBlockState(rootPos);
+			BlockRooty dirt = TreeHelper.getRooty(rootyState);
+			if (dirt == null) {
+				return;
+			}
+			Species species = dirt.getSpecies(rootyState, world, rootPos);
+			BlockPos treePos = rootPos.offset(dirt.getTrunkDirection(world, rootPos));
+			if (species.isValid() && world.getWorldType() != WorldType.DEBUG_ALL_BLOCK_STATES && AsyncTreeGrowth.canBuffer(getTreePart(world.getBlockState(treePos)), species)) {
+				pulses -= species.fastForward(world, dirt, rootPos, treePos, pulses - 1, world.rand);
+			}
+		}
+
+		for (int i = 0; i < pulses; i++) {
+			growPulse(world, rootPos);
+		}
+	}
+
+	/**
+	 * Pulses the leaves of a leaf cluster stamped at a position with an age signal.  Used to settle the leaves around a
+	 * branch end without aging the whole box around it.
+	 *
+	 * @param world      The world
+	 * @param center     The position the cluster is stamped at.  Usually a branch end
+	 * @param cluster    The leaf cluster
+	 * @param iterations The number of times to age the cluster
+	 */
+	public static void ageVolume(World world, BlockPos center, CompiledVoxmap cluster, int iterations, SafeChunkBounds safeBounds) {
+		try (SectionBlockAccess access = BlockWriteBatch.open(world)) {
+			MutableBlockPos iPos = new MutableBlockPos();
+			for (int i = 0; i < iterations; i++) {
+				for (int v = 0; v < cluster.size(); v++) {
+					IBlockState blockState = access.getBlockState(cluster.getPos(v, center, iPos));
+					Block block = blockState.getBlock();
+					if (block instanceof IAgeable) {
+						((IAgeable) block).age(world, iPos, blockState, world.rand, safeBounds);
+					}
+				}
+			}
+		}
+	}
+
 	/**
 	 * Pulses an entire leafMap volume of blocks each with an age signal. Warning: CPU intensive and should be used
 	 * sparingly
@@ -56,41 +121,43 @@ public class TreeHelper {
 	 */
 	public static void ageVolume(World world, SimpleVoxmap leafMap, int iterations, SafeChunkBounds safeBounds) {
 
-		//The iterMap is the voxmap we will use as a discardable.  The leafMap must survive for snow
-		SimpleVoxmap iterMap = leafMap != null ? new SimpleVoxmap(leafMap) : null;
-		Iterable<MutableBlockPos> iterable = iterMap.getAllNonZero();
-
-		for (int i = 0; i < iterations; i++) {
-			for (MutableBlockPos iPos : iterable) {
-				IBlockState blockState = world.getBlockState(iPos);
-				Block block = blockState.getBlock();
-				if (block instanceof BlockDynamicLeaves) {//Special case for leaves
-					int prevHydro = leafMap.getVoxel(iPos);//The leafMap should contain accurate hydro data
-					int newHydro = ((IAgeable) block).age(world, iPos, blockState, world.rand, safeBounds);//Get new values from neighbors
-					if (newHydro == -1) {
-						//Leaf block died.  Take it out of the leafMap and iterMap
-						leafMap.setVoxel(iPos, (byte) 0);
-						iterMap.setVoxel(iPos, (byte) 0);
-					} else {
-						//Leaf did not die so the block is still leaves
-						if (prevHydro == newHydro) { //But it didn't change
-							iterMap.setVoxel(iPos, (byte) 0); //Stop iterating over it if it's not changing
-						} else {//Oh wait.. it did change
-							//Update both maps with this new hydro value
-							leafMap.setVoxel(iPos, (byte) newHydro);
-							iterMap.setVoxel(iPos, (byte) newHydro);
-							//Copy all the surrounding values from the leafMap to the iterMap since they now also have potential to change
-							for (EnumFacing dir : EnumFacing.values()) {
-								BlockPos dPos = iPos.offset(dir);
-								iterMap.setVoxel(dPos, leafMap.getVoxel(dPos));
+		try (SectionBlockAccess access = BlockWriteBatch.open(world)) {
+			//The iterMap is the voxmap we will use as a discardable.  The leafMap must survive for snow
+			SimpleVoxmap iterMap = leafMap != null ? new SimpleVoxmap(leafMap) : null;
+			Iterable<MutableBlockPos> iterable = iterMap.getAllNonZero();
+
+			for (int i = 0; i < iterations; i++) {
+				for (MutableBlockPos iPos : iterable) {
+					IBlockState blockState = access.getBlockState(iPos);
+					Block block = blockState.getBlock();
+					if (block instanceof BlockDynamicLeaves) {//Special case for leaves
+						int prevHydro = leafMap.getVoxel(iPos);//The leafMap should contain accurate hydro data
+						int newHydro = ((IAgeable) block).age(world, iPos, blockState, world.rand, safeBounds);//Get new values from neighbors
+						if (newHydro == -1) {
+							//Leaf block died.  Take it out of the leafMap and iterMap
+							leafMap.setVoxel(iPos, (byte) 0);
+							iterMap.setVoxel(iPos, (byte) 0);
+						} else {
+							//Leaf did not die so the block is still leaves
+							if (prevHydro == newHydro) { //But it didn't change
+								iterMap.setVoxel(iPos, (byte) 0); //Stop iterating over it if it's not changing
+							} else {//Oh wait.. it did change
+								//Update both maps with this new hydro value
+								leafMap.setVoxel(iPos, (byte) newHydro);
+								iterMap.setVoxel(iPos, (byte) newHydro);
+								//Copy all the surrounding values from the leafMap to the iterMap since they now also have potential to change
+								for (EnumFacing dir : EnumFacing.values()) {
+									BlockPos dPos = iPos.offset(dir);
+									iterMap.setVoxel(dPos, leafMap.getVoxel(dPos));
+								}
 							}
 						}
+					} else if (block instanceof IAgeable) {//Treat as just a regular ageable block
+						((IAgeable) block).age(world, iPos, blockState, world.rand, safeBounds);
+					} else {//You're not supposed to be here
+						leafMap.setVoxel(iPos, (byte) 0);
+						iterMap.setVoxel(iPos, (byte) 0);
 					}
-				} else if (block instanceof IAgeable) {//Treat as just a regular ageable block
-					((IAgeable) block).age(world, iPos, blockState, world.rand, safeBounds);
-				} else {//You're not supposed to be here
-					leafMap.setVoxel(iPos, (byte) 0);
-					iterMap.setVoxel(iPos, (byte) 0);
 				}
 			}
 		}
@@ -108,14 +175,16 @@ public class TreeHelper {
 	 * @param iterations The number of times to age the volume
 	 */
 	public static void ageVolume(World world, BlockPos treePos, int halfWidth, int height, int iterations, SafeChunkBounds safeBounds) {
-		//Slow and dirty iteration over a cuboid volume.  Try to avoid this by using a voxmap if you can
-		Iterable<MutableBlockPos> iterable = BlockPos.getAllInBoxMutable(treePos.add(new BlockPos(-halfWidth, 0, -halfWidth)), treePos.add(new BlockPos(halfWidth, height, halfWidth)));
-		for (int i = 0; i < iterations; i++) {
-			for (MutableBlockPos iPos : iterable) {
-				IBlockState blockState = world.getBlockState(iPos);
-				Block block = blockState.getBlock();
-				if (block instanceof IAgeable) {
-					((IAgeable) block).age(world, iPos, blockState, world.rand, safeBounds);//Treat as just a regular ageable block
+		try (SectionBlockAccess access = BlockWriteBatch.open(world)) {
+			//Slow and dirty iteration over a cuboid volume.  Try to avoid this by using a voxmap if you can
+			Iterable<MutableBlockPos> iterable = BlockPos.getAllInBoxMutable(treePos.add(new BlockPos(-halfWidth, 0, -halfWidth)), treePos.add(new BlockPos(halfWidth, height, halfWidth)));
+			for (int i = 0; i < iterations; i++) {
+				for (MutableBlockPos iPos : iterable) {
+					IBlockState blockState = access.getBlockState(iPos);
+					Block block = blockState.getBlock();
+					if (block instanceof IAgeable) {
+						((IAgeable) block).age(world, iPos, blockState, world.rand, safeBounds);//Treat as just a regular ageable block
+					}
 				}
 			}
 		}
@@ -245,8 +314,28 @@ public class TreeHelper {
 
 		switch (treePart.getTreePartType()) {
 			case BRANCH:
-				MapSignal signal = treePart.analyse(state, world, pos, null, new MapSignal());// Analyze entire tree network to find root node
+				boolean indexed = ModConfigs.treeRootIndex && !world.isRemote;
+				if (indexed) {
+					TreeRootIndex rootIndex = TreeRootIndex.get(world);
+					BlockPos rootPos = rootIndex.getRoot(pos);
+					if (rootPos != null) {
+						RootWalk walk = walkToRoot(world, pos, rootPos);
+						if (walk == RootWalk.CONNECTED) {
+							return rootPos;
+						}
+						if (walk == RootWalk.DISCONNECTED) {
+							rootIndex.remove(pos);//Stale entry.  The tree lost it's root or the branch was cut off from it
+						} else {
+							indexed = false;//Couldn't tell.  Likely right so it's left as it is and not indexed again
+						}
+					}
+				}
+				NodeRootIndexer indexer = indexed ? new NodeRootIndexer() : null;
+				MapSignal signal = treePart.analyse(state, world, pos, null, indexed ? new MapSignal(indexer) : new MapSignal());// Analyze entire tree network to find root node
 				if (signal.found) {
+					if (indexed && !signal.overflow && !signal.multiroot) {
+						indexer.index(world, signal.root);
+					}
 					return signal.root;
 				}
 				break;
@@ -259,6 +348,63 @@ public class TreeHelper {
 		return BlockPos.ORIGIN;
 	}
 
+	private enum RootWalk {
+		CONNECTED,
+		DISCONNECTED,
+		UNKNOWN//Ran out of branches to visit
+	}
+
+	/**
+	 * Walk the branches of a tree from a branch toward a root, closest to the root first, until the trunk base on the
+	 * root is reached.  Gives up after a number of branches that grows with the distance to the root.
+	 *
+	 * @param world     The world
+	 * @param branchPos The position of a branch
+	 * @param rootPos   The position of the rooty block the branch is thought to grow from
+	 * @return Whether the branch is connected to the root, proven not to be, or if the walk gave up first
+	 */
+	private static RootWalk walkToRoot(World world, BlockPos branchPos, BlockPos rootPos) {
+		IBlockState rootyState = world.getBlockState(rootPos);
+		BlockRooty rooty = getRooty(rootyState);
+		BlockBranch branch = getBranch(world.getBlockState(branchPos));
+		if (rooty == null || branch == null) {
+			return RootWalk.DISCONNECTED;
+		}
+		BlockPos treePos = rootPos.offset(rooty.getTrunkDirection(world, rootPos));
+		int budget = MAXROOTWALK + distance(branchPos, treePos) * 4;
+
+		LongSet visited = new LongSet(MAXROOTWALK);
+		Deque<BlockPos> toVisit = new ArrayDeque<>();
+		toVisit.push(branchPos);
+		while (!toVisit.isEmpty()) {
+			if (visited.size() >= budget) {
+				return RootWalk.UNKNOWN;
+			}
+			BlockPos pos = toVisit.pop();
+			if (!visited.add(pos)) {
+				continue;
+			}
+			if (pos.equals(treePos)) {
+				return RootWalk.CONNECTED;
+			}
+			//Push the neighbors that lead away from the root first so the ones that lead toward it are visited next
+			int distance = distance(pos, treePos);
+			for (int pass = 0; pass < 2; pass++) {
+				for (EnumFacing dir : EnumFacing.VALUES) {
+					BlockPos deltaPos = pos.offset(dir);
+					if ((distance(deltaPos, treePos) < distance) == (pass == 1) && !visited.contains(deltaPos) && branch.isSameTree(getTreePart(world.getBlockState(deltaPos)))) {
+						toVisit.push(deltaPos);
+					}
+				}
+			}
+		}
+		return RootWalk.DISCONNECTED;//Visited every branch that could be reached
+	}
+
+	private static int distance(BlockPos a, BlockPos b) {
+		return Math.abs(a.getX() - b.getX()) + Math.abs(a.getY() - b.getY()) + Math.abs(a.getZ() - b.getZ());
+	}
+
 
 	/**
 	 * Sets a custom rooty block decay(what dirt it becomes when the tree is gone) algorithm for mods that have special
@@ -1,13 +1,18 @@
 package com.ferreusveritas.dynamictrees.api.network;
 
+import com.ferreusveritas.dynamictrees.ModConfigs;
+import com.ferreusveritas.dynamictrees.blocks.BlockBranch.EnumLoopRepair;
 import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeCollector;
+import com.ferreusveritas.dynamictrees.util.LongSet;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 public class MapSignal {
 
@@ -17,12 +22,22 @@ public class MapSignal {
 	public int depth;
 	public boolean multiroot = false;
 	public boolean destroyLoopedNodes = true;
-	public boolean trackVisited = false;
+	public boolean trackVisited = false;//Skip nodes that were already visited.  Needed for networks with loops
+	public boolean iterative = ModConfigs.iterativeBranchAnalysis;//Use the explicit stack BranchNetworkWalker for stock branches
+	public boolean detectLoops = ModConfigs.branchLoopRepair != EnumLoopRepair.DEPTH;//Track the current path to catch loops before they overflow
 
 	public EnumFacing localRootDir;
 
 	public boolean overflow;
 	public boolean found;
+	public List<BlockPos> loop;//The nodes of the loop that stopped the signal in the order they were walked.  Null if none was found
+
+	protected LongSet visited;//Created on the first visit when trackVisited is set
+
+	//The branch nodes between the origin and the node being analysed
+	protected LongSet pathSet;
+	protected BlockPos[] path;
+	protected int pathLength;
 
 	public MapSignal() {
 		localRootDir = null;
@@ -52,7 +67,76 @@ public class MapSignal {
 		return nodeInspectors;
 	}
 
+	/**
+	 * Record that a node is being visited.  Does nothing unless {@link #trackVisited} is set.
+	 */
+	public void markVisited(BlockPos pos) {
+		if (trackVisited) {
+			if (visited == null) {
+				visited = new LongSet(64);
+			}
+			visited.add(pos.toLong());
+		}
+	}
+
+	/**
+	 * Push a node onto the path.  Every call must be matched with a call to {@link #leavePath()} once the node has been
+	 * fully analysed.
+	 */
+	public void enterPath(BlockPos pos) {
+		if (detectLoops && !trackVisited) {//Visited tracking already stops signals from going around loops
+			if (path == null) {
+				pathSet = new LongSet(64);
+				path = new BlockPos[32];
+			} else if (pathLength == path.length) {
+				path = Arrays.copyOf(path, pathLength * 2);
+			}
+			pathSet.add(pos.toLong());
+			path[pathLength++] = pos;
+		}
+	}
+
+	public void leavePath() {
+		if (pathLength > 0) {
+			pathSet.remove(path[--pathLength].toLong());
+			path[pathLength] = null;
+		}
+	}
+
+	/**
+	 * Since a signal never goes back the way it came, arriving at a node that's already on the path means the signal
+	 * went around a loop.
+	 *
+	 * @return true if the node is on the path
+	 */
+	public boolean isOnPath(BlockPos pos) {
+		return pathLength > 0 && pathSet.contains(pos.toLong());
+	}
+
+	/**
+	 * Stop the signal at a loop.
+	 *
+	 * @param pos A node on the path that the signal arrived at again
+	 * @return The nodes of the loop starting with pos
+	 */
+	public List<BlockPos> closeLoop(BlockPos pos) {
+		int start = pathLength - 1;
+		while (start > 0 && !path[start].equals(pos)) {
+			start--;
+		}
+		loop = new ArrayList<>(Arrays.asList(path).subList(start, pathLength));
+		overflow = true;
+		return loop;
+	}
+
+	/**
+	 * @return true if the node was already visited by this signal.  Nodes held by a {@link NodeCollector} in the first
+	 * inspector slot count as visited as well for the sake of code that fills the collector up front.
+	 */
 	public boolean doTrackingVisited(BlockPos pos) {
+		if (visited != null && visited.contains(pos.toLong())) {
+			return true;
+		}
 		if (nodeInspectors.size() > 0) {
 			INodeInspector inspector = nodeInspectors.get(0);
 			if (inspector instanceof NodeCollector) {
@@ -6,4 +6,29 @@ public interface IRadiusCoordinator {
 
 	boolean runPass(int chunkX, int chunkZ, int pass);
 
+	/**
+	 * Get the part of the radius at a position that changes slowly enough to be sampled from a grid.  Disc providers
+	 * work these out for every 4th block of a chunk the first time it's needed and keep them with the chunk.
+	 *
+	 * @param x X-Axis of a grid point
+	 * @param z Z-Axis of a grid point
+	 * @return The grid value
+	 */
+	default int getRadiusGridValue(int x, int z) {
+		return 0;
+	}
+
+	/**
+	 * Get the radius at a position from the grid value of the grid point it falls in.  Must give the same as
+	 * {@link #getRadiusAtCoords(int, int)} at grid points.
+	 *
+	 * @param x         X-Axis
+	 * @param z         Z-Axis
+	 * @param gridValue The value of {@link #getRadiusGridValue(int, int)} at the grid point
+	 * @return The radius
+	 */
+	default int getRadiusFromGrid(int x, int z, int gridValue) {
+		return getRadiusAtCoords(x, z);//Not sampled from a grid unless overridden
+	}
+
 }
@@ -9,14 +9,19 @@ import com.ferreusveritas.dynamictrees.api.treedata.ITreePart;
 import com.ferreusveritas.dynamictrees.entities.EntityFallingTree;
 import com.ferreusveritas.dynamictrees.entities.EntityFallingTree.DestroyType;
 import com.ferreusveritas.dynamictrees.event.FutureBreak;
+import com.ferreusveritas.dynamictrees.systems.TreeDormancy;
+import com.ferreusveritas.dynamictrees.systems.TreeRootIndex;
+import com.ferreusveritas.dynamictrees.systems.TreeSkeletonCache;
 import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeDestroyer;
 import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeExtState;
+import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeHarvester;
 import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeNetVolume;
-import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeSpecies;
 import com.ferreusveritas.dynamictrees.trees.Species;
 import com.ferreusveritas.dynamictrees.trees.TreeFamily;
 import com.ferreusveritas.dynamictrees.util.BlockBounds;
 import com.ferreusveritas.dynamictrees.util.BranchDestructionData;
+import com.ferreusveritas.dynamictrees.util.CompiledVoxmap;
+import com.ferreusveritas.dynamictrees.util.SectionBlockAccess;
 import com.ferreusveritas.dynamictrees.util.SimpleVoxmap;
 import com.ferreusveritas.dynamictrees.util.SimpleVoxmap.Cell;
 import net.minecraft.block.Block;
@@ -237,42 +242,55 @@ public abstract class BlockBranch extends Block implements ITreePart, IFutureBre
 	 */
 	public BranchDestructionData destroyBranchFromNode(World world, BlockPos cutPos, EnumFacing toolDir, boolean wholeTree) {
 
-		IBlockState blockState = world.getBlockState(cutPos);
-		NodeSpecies nodeSpecies = new NodeSpecies();
-		MapSignal signal = analyse(blockState, world, cutPos, null, new MapSignal(nodeSpecies));// Analyze entire tree network to find root node and species
-		Species species = nodeSpecies.getSpecies();//Get the species from the root node
-
-		// Analyze only part of the tree beyond the break point and map out the extended block states
-		// We can't destroy the branches during this step since we need accurate extended block states that include connections
-		NodeExtState extStateMapper = new NodeExtState(cutPos);
-		analyse(blockState, world, cutPos, wholeTree ? null : signal.localRootDir, new MapSignal(extStateMapper));
-
-		// Analyze only part of the tree beyond the break point and calculate it's volume, then destroy the branches
-		NodeNetVolume volumeSum = new NodeNetVolume();
-		NodeDestroyer destroyer = new NodeDestroyer(species);
-		destroyMode = EnumDestroyMode.HARVEST;
-		analyse(blockState, world, cutPos, wholeTree ? null : signal.localRootDir, new MapSignal(volumeSum, destroyer));
-		destroyMode = EnumDestroyMode.SLOPPY;
+		try (SectionBlockAccess access = SectionBlockAccess.open(world)) {//Pin the chunks of the tree while it is mapped and destroyed
+			IBlockState blockState = world.getBlockState(cutPos);
+			NodeHarvester harvester = new NodeHarvester(cutPos);
+			MapSignal signal = analyse(blockState, world, cutPos, null, new MapSignal(harvester));// Analyze entire tree network to find root node and species
+			Species species = harvester.getSpecies();//Get the species from the root node
+			EnumFacing excludeDir = wholeTree ? null : signal.localRootDir;
+
+			NodeExtState extStateMapper = new NodeExtState(cutPos);
+			NodeNetVolume volumeSum = new NodeNetVolume();
+			NodeDestroyer destroyer = new NodeDestroyer(species);
+
+			if (!signal.overflow) {
+				// Only the part of the tree beyond the break point is replayed from the nodes recorded above.
+				// Map out the extended block states first since we need accurate connections before anything is destroyed
+				harvester.replay(world, excludeDir, extStateMapper);
+
+				// Calculate the volume and destroy the branches in one write pass
+				destroyMode = EnumDestroyMode.HARVEST;
+				harvester.replay(world, excludeDir, volumeSum, destroyer);
+				destroyMode = EnumDestroyMode.SLOPPY;
+			} else {
+				// The overflow altered the network so the recorded nodes can't be trusted.  Analyze the remains the old way.
+				analyse(blockState, world, cutPos, excludeDir, new MapSignal(extStateMapper));
+
+				destroyMode = EnumDestroyMode.HARVEST;
+				analyse(blockState, world, cutPos, excludeDir, new MapSignal(volumeSum, destroyer));
+				destroyMode = EnumDestroyMode.SLOPPY;
+			}
 
-		//Destroy all the leaves on the branch, store them in a map and convert endpoint coordinates from absolute to relative
-		List<BlockPos> endPoints = destroyer.getEnds();
-		Map<BlockPos, IBlockState> destroyedLeaves = new HashMap<>();
-		List<BlockItemStack> leavesDropsList = new ArrayList<>();
-		destroyLeaves(world, cutPos, species, endPoints, destroyedLeaves, leavesDropsList);
-		endPoints = endPoints.stream().map(p -> p.subtract(cutPos)).collect(Collectors.toList());
-
-		//Calculate main trunk height
-		int trunkHeight = 1;
-		for (BlockPos iter = new BlockPos(0, 1, 0); extStateMapper.getExtStateMap().containsKey(iter); iter = iter.up()) {
-			trunkHeight++;
-		}
+			//Destroy all the leaves on the branch, store them in a map and convert endpoint coordinates from absolute to relative
+			List<BlockPos> endPoints = destroyer.getEnds();
+			Map<BlockPos, IBlockState> destroyedLeaves = new HashMap<>();
+			List<BlockItemStack> leavesDropsList = new ArrayList<>();
+			destroyLeaves(world, cutPos, species, endPoints, destroyedLeaves, leavesDropsList);
+			endPoints = endPoints.stream().map(p -> p.subtract(cutPos)).collect(Collectors.toList());
+
+			//Calculate main trunk height
+			int trunkHeight = 1;
+			for (BlockPos iter = new BlockPos(0, 1, 0); extStateMapper.getExtStateMap().containsKey(iter); iter = iter.up()) {
+				trunkHeight++;
+			}
 
-		EnumFacing cutDir = signal.localRootDir;
-		if (cutDir == null) {
-			cutDir = EnumFacing.DOWN;
-		}
+			EnumFacing cutDir = signal.localRootDir;
+			if (cutDir == null) {
+				cutDir = EnumFacing.DOWN;
+			}
 
-		return new BranchDestructionData(species, extStateMapper.getExtStateMap(), destroyedLeaves, leavesDropsList, endPoints, volumeSum.getVolume(), cutPos, cutDir, toolDir, trunkHeight);
+			return new BranchDestructionData(species, extStateMapper.getExtStateMap(), destroyedLeaves, leavesDropsList, endPoints, volumeSum.getVolume(), cutPos, cutDir, toolDir, trunkHeight);
+		}
 	}
 
 	/**
@@ -319,13 +337,12 @@ public abstract class BlockBranch extends Block implements ITreePart, IFutureBre
 			int primaryThickness = (int) family.getPrimaryThickness();
 
 			//Expand the volume yet again by 3 blocks in all directions and search for other non-destroyed endpoints
+			IBlockAccess access = SectionBlockAccess.of(world);
+			CompiledVoxmap leafCluster = CompiledVoxmap.of(species.getLeavesProperties().getCellKit().getLeafCluster());
 			for (MutableBlockPos findPos : bounds.expand(3).iterate()) {
-				IBlockState findState = world.getBlockState(findPos);
+				IBlockState findState = access.getBlockState(findPos);
 				if (familyBranch.getRadius(findState) == primaryThickness) { //Search for endpoints of the same tree family
-					Iterable<MutableBlockPos> leaves = species.getLeavesProperties().getCellKit().getLeafCluster().getAllNonZero();
-					for (MutableBlockPos leafpos : leaves) {
-						vmap.setVoxel(findPos.getX() + leafpos.getX(), findPos.getY() + leafpos.getY(), findPos.getZ() + leafpos.getZ(), (byte) 0);
-					}
+					leafCluster.blitClear(vmap, findPos);
 				}
 			}
 
@@ -334,7 +351,7 @@ public abstract class BlockBranch extends Block implements ITreePart, IFutureBre
 			//Destroy all family compatible leaves
 			for (Cell cell : vmap.getAllNonZeroCells()) {
 				MutableBlockPos pos = cell.getPos();
-				IBlockState state = world.getBlockState(pos);
+				IBlockState state = access.getBlockState(pos);
 				if (species.isCompatibleLeaves(world, pos, state)) {
 					dropList.clear();
 					species.getTreeHarvestDrops(world, pos, dropList, world.rand);
@@ -526,8 +543,27 @@ public abstract class BlockBranch extends Block implements ITreePart, IFutureBre
 
 	public static EnumDestroyMode destroyMode = EnumDestroyMode.SLOPPY;
 
+	/**
+	 * What to do when a loop is found in a branch network
+	 */
+	public enum EnumLoopRepair {
+		DEPTH,//Don't look for loops.  Let the signal run around the loop until it overflows and break the node it's on
+		THINNEST,//Break the thinnest node of the loop.  The most recently grown one if there's a tie
+		CLOSING,//Break the node that closed the loop
+		NONE//Only stop the signal
+	}
+
 	@Override
 	public void breakBlock(World world, BlockPos pos, IBlockState state) {
+		TreeSkeletonCache.get(world).invalidate(pos);//Harvested branches are removed without notifying the world listeners
+		if (ModConfigs.treeDormancy && !world.isRemote) {
+			BlockPos rootPos = TreeRootIndex.get(world).getRoot(pos);//Wake the tree while the index still knows its root
+			if (rootPos != null) {
+				TreeDormancy.get(world).wake(rootPos);
+			}
+		}
+		TreeRootIndex.get(world).remove(pos);
+
 		if (!world.isRemote && destroyMode == EnumDestroyMode.SLOPPY) {
 			//System.out.println("Sloppy break detected at: " + pos);
 			IBlockState toBlockState = world.getBlockState(pos);
@@ -11,8 +11,10 @@ import com.ferreusveritas.dynamictrees.api.treedata.ITreePart;
 import com.ferreusveritas.dynamictrees.cells.CellMetadata;
 import com.ferreusveritas.dynamictrees.entities.EntityFallingTree;
 import com.ferreusveritas.dynamictrees.systems.GrowSignal;
+import com.ferreusveritas.dynamictrees.systems.TreeRootIndex;
 import com.ferreusveritas.dynamictrees.trees.Species;
 import com.ferreusveritas.dynamictrees.trees.TreeFamily;
+import com.ferreusveritas.dynamictrees.util.SectionBlockAccess;
 import net.minecraft.block.SoundType;
 import net.minecraft.block.material.Material;
 import net.minecraft.block.properties.IProperty;
@@ -42,6 +44,11 @@ public class BlockBranchBasic extends BlockBranch {
 
 	protected IBlockState[] branchStates;
 
+	/**
+	 * True if this class uses the stock {@link #analyse} and can be handled by the {@link BranchNetworkWalker}
+	 */
+	final boolean stockAnalysis = usesStockAnalysis(getClass());
+
 	// Trees are mostly made of wood
 	public BlockBranchBasic(String name) {
 		this(Material.WOOD, name);//Trees are made of wood. Brilliant.
@@ -143,11 +150,12 @@ public class BlockBranchBasic extends BlockBranch {
 		// Rooty dirt below the block counts as a branch in this instance
 		// Rooty dirt below for saplings counts as 2 neighbors if the soil is not infertile
 		int neigh = 0;// High Nybble is count of branches, Low Nybble is any reinforcing treepart(including branches)
+		IBlockAccess access = SectionBlockAccess.of(world);
 
 		for (EnumFacing dir : EnumFacing.VALUES) {
 			BlockPos deltaPos = pos.offset(dir);
-			IBlockState deltaBlockState = world.getBlockState(deltaPos);
-			neigh += TreeHelper.getTreePart(deltaBlockState).branchSupport(deltaBlockState, world, this, deltaPos, dir, radius);
+			IBlockState deltaBlockState = access.getBlockState(deltaPos);
+			neigh += TreeHelper.getTreePart(deltaBlockState).branchSupport(deltaBlockState, access, this, deltaPos, dir, radius);
 			if (getBranchSupport(neigh) >= 1 && getLeavesSupport(neigh) >= 2) {// Need two neighbors.. one of which must be another branch
 				return false;// We've proven that this branch is reinforced so there is no need to continue
 			}
@@ -158,7 +166,7 @@ public class BlockBranchBasic extends BlockBranch {
 		if (rapid && didRot) {// Speedily rot back dead branches if this block rotted
 			for (EnumFacing dir : EnumFacing.VALUES) {// The logic here is that if this block rotted then
 				BlockPos neighPos = pos.offset(dir);// the neighbors might be rotted too.
-				IBlockState neighState = world.getBlockState(neighPos);
+				IBlockState neighState = access.getBlockState(neighPos);
 				if (neighState.getBlock() == this) { // Only check blocks logs that are the same as this one
 					checkForRot(world, neighPos, species, getRadius(neighState), rand, 1.0f, true);
 				}
@@ -243,9 +251,23 @@ public class BlockBranchBasic extends BlockBranch {
 
 	@Override
 	public int setRadius(World world, BlockPos pos, int radius, EnumFacing originDir, int flags) {
+		if (SectionBlockAccess.isBuffered(world)) {//Growing away from the world.  The root index is updated when the change is applied
+			SectionBlockAccess.setBlockState(world, pos, getStateForRadius(radius), flags);
+			return radius;
+		}
+
 		destroyMode = EnumDestroyMode.SETRADIUS;
 		world.setBlockState(pos, getStateForRadius(radius), flags);
 		destroyMode = EnumDestroyMode.SLOPPY;
+
+		if (originDir != null && ModConfigs.treeRootIndex && !world.isRemote) {//The branch we grew from knows where the root is
+			TreeRootIndex rootIndex = TreeRootIndex.get(world);
+			BlockPos rootPos = rootIndex.getRoot(pos.offset(originDir));
+			if (rootPos != null) {
+				rootIndex.setRoot(pos, rootPos);
+			}
+		}
+
 		return radius;
 	}
 
@@ -279,7 +301,8 @@ public class BlockBranchBasic extends BlockBranch {
 
 		if (signal.step()) {// This is always placed at the beginning of every growSignal function
 
-			IBlockState currBlockState = world.getBlockState(pos);
+			IBlockAccess access = SectionBlockAccess.of(world);
+			IBlockState currBlockState = access.getBlockState(pos);
 			Species species = signal.getSpecies();
 			boolean inTrunk = signal.isInTrunk();
 
@@ -289,13 +312,13 @@ public class BlockBranchBasic extends BlockBranch {
 
 			{
 				BlockPos deltaPos = pos.offset(targetDir);
-				IBlockState deltaState = world.getBlockState(deltaPos);
+				IBlockState deltaState = access.getBlockState(deltaPos);
 
 				// Pass grow signal to next block in path
 				ITreePart treepart = TreeHelper.getTreePart(deltaState);
 				if (treepart != TreeHelper.nullTreePart) {
 					signal = treepart.growSignal(world, deltaPos, signal);// Recurse
-				} else if (world.isAirBlock(deltaPos) || deltaState.getBlock() == ModBlocks.blockTrunkShell) {
+				} else if (access.isAirBlock(deltaPos) || deltaState.getBlock() == ModBlocks.blockTrunkShell) {
 					signal = growIntoAir(world, deltaPos, signal, getRadius(currBlockState));
 				}
 			}
@@ -311,7 +334,7 @@ public class BlockBranchBasic extends BlockBranch {
 					// swing, rotting, burned or infested branch, etc) then this new block could be
 					// derived from BlockBranch and this works perfectly. Should even work with
 					// tileEntity blocks derived from BlockBranch.
-					IBlockState blockState = world.getBlockState(deltaPos);
+					IBlockState blockState = access.getBlockState(deltaPos);
 					ITreePart treepart = TreeHelper.getTreePart(blockState);
 					if (isSameTree(treepart)) {
 						int branchRadius = treepart.getRadius(blockState);
@@ -425,6 +448,14 @@ public class BlockBranchBasic extends BlockBranch {
 		return this.getFamily().getMaxSignalDepth();
 	}
 
+	private static boolean usesStockAnalysis(Class<?> clazz) {
+		try {
+			return clazz.getMethod("analyse", IBlockState.class, World.class, BlockPos.class, EnumFacing.class, MapSignal.class).getDeclaringClass() == BlockBranchBasic.class;
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+
 	/**
 	 * This is a recursive algorithm used to explore the branch network.  It calls a run() function for the signal on
 	 * the way out and a returnRun() on the way back.
@@ -441,22 +472,37 @@ public class BlockBranchBasic extends BlockBranch {
 	 * The difference being that in an iterative design I would need to maintain a stack array holding all of the values
 	 * and push and pop them manually or use a stack index.  This is messy and not something I would want to maintain
 	 * for practically non-existent gains. Java does a pretty good job of managing the stack on its own.
+	 * <p>
+	 * That said, the real cost on huge trees turned out to be the {@link BlockPos} garbage rather than the stack. Signals
+	 * with {@link MapSignal#iterative} set are handed to the {@link BranchNetworkWalker} which produces the same results.
 	 */
 	@Override
 	public MapSignal analyse(IBlockState blockState, World world, BlockPos pos, EnumFacing fromDir, MapSignal signal) {
 		// Note: fromDir will be null in the origin node
 
+		if (signal.iterative) {
+			return BranchNetworkWalker.walk(this, blockState, world, pos, fromDir, signal);
+		}
+
 		if (signal.overflow || (signal.trackVisited && signal.doTrackingVisited(pos))) {
 			return signal;
 		}
 
+		if (signal.isOnPath(pos)) {// Came around a loop
+			breakLoop(world, signal.closeLoop(pos), signal);
+			return signal;
+		}
+
 		if (signal.depth++ < getMaxSignalDepth()) {// Prevents going too deep into large networks, or worse, being caught in a network loop
+			signal.markVisited(pos);
+			signal.enterPath(pos);
 			signal.run(blockState, world, pos, fromDir);// Run the inspectors of choice
+			IBlockAccess access = SectionBlockAccess.of(world);
 			for (EnumFacing dir : EnumFacing.VALUES) {// Spread signal in various directions
 				if (dir != fromDir) {// don't count where the signal originated from
 					BlockPos deltaPos = pos.offset(dir);
 
-					IBlockState deltaState = world.getBlockState(deltaPos);
+					IBlockState deltaState = access.getBlockState(deltaPos);
 					ITreePart treePart = TreeHelper.getTreePart(deltaState);
 
 					if (treePart.shouldAnalyse()) {
@@ -470,6 +516,7 @@ public class BlockBranchBasic extends BlockBranch {
 				}
 			}
 			signal.returnRun(blockState, world, pos, fromDir);
+			signal.leavePath();
 		} else {
 			IBlockState state = world.getBlockState(pos);
 			if (signal.destroyLoopedNodes && state.getBlock() instanceof BlockBranch) {
@@ -483,4 +530,45 @@ public class BlockBranchBasic extends BlockBranch {
 		return signal;
 	}
 
+	/**
+	 * Break a node of a loop found by a signal according to the branchLoopRepair config option.
+	 *
+	 * @param world  The world
+	 * @param loop   The nodes of the loop in the order they were walked
+	 * @param signal The signal that found the loop
+	 */
+	public static void breakLoop(World world, List<BlockPos> loop, MapSignal signal) {
+		if (!signal.destroyLoopedNodes || loop.isEmpty()) {
+			return;
+		}
+
+		BlockPos breakPos = null;
+		switch (ModConfigs.branchLoopRepair) {
+			case THINNEST:
+				int thinnest = Integer.MAX_VALUE;
+				for (BlockPos pos : loop) {
+					IBlockState state = world.getBlockState(pos);
+					int radius = TreeHelper.getTreePart(state).getRadius(state);
+					if (radius > 0 && radius <= thinnest) {// Later nodes win ties
+						thinnest = radius;
+						breakPos = pos;
+					}
+				}
+				break;
+			case CLOSING:
+			case DEPTH:// Only reached by signals that had detectLoops set by hand
+				breakPos = loop.get(loop.size() - 1);
+				break;
+			default:
+				break;
+		}
+
+		if (breakPos != null) {
+			IBlockState state = world.getBlockState(breakPos);
+			if (state.getBlock() instanceof BlockBranch) {
+				((BlockBranch) state.getBlock()).breakDeliberate(world, breakPos, EnumDestroyMode.OVERFLOW);
+			}
+		}
+	}
+
 }
@@ -7,16 +7,23 @@ import com.ferreusveritas.dynamictrees.api.IAgeable;
 import com.ferreusveritas.dynamictrees.api.TreeHelper;
 import com.ferreusveritas.dynamictrees.api.cells.CellNull;
 import com.ferreusveritas.dynamictrees.api.cells.ICell;
+import com.ferreusveritas.dynamictrees.api.cells.ICellSolver;
 import com.ferreusveritas.dynamictrees.api.network.MapSignal;
 import com.ferreusveritas.dynamictrees.api.treedata.ILeavesProperties;
 import com.ferreusveritas.dynamictrees.api.treedata.ITreePart;
+import com.ferreusveritas.dynamictrees.cells.CellKits.BasicSolver;
 import com.ferreusveritas.dynamictrees.entities.EntityFallingTree;
 import com.ferreusveritas.dynamictrees.items.Seed;
+import com.ferreusveritas.dynamictrees.systems.ColumnLightCache;
 import com.ferreusveritas.dynamictrees.systems.GrowSignal;
+import com.ferreusveritas.dynamictrees.systems.LeafAgingQueue;
+import com.ferreusveritas.dynamictrees.systems.LeafSectionFilter;
 import com.ferreusveritas.dynamictrees.trees.Species;
 import com.ferreusveritas.dynamictrees.trees.TreeFamily;
+import com.ferreusveritas.dynamictrees.util.CompiledVoxmap;
 import com.ferreusveritas.dynamictrees.util.IRayTraceCollision;
 import com.ferreusveritas.dynamictrees.util.SafeChunkBounds;
+import com.ferreusveritas.dynamictrees.util.SectionBlockAccess;
 import net.minecraft.block.*;
 import net.minecraft.block.BlockDoublePlant.EnumBlockHalf;
 import net.minecraft.block.BlockDoublePlant.EnumPlantType;
@@ -40,6 +47,7 @@ import net.minecraft.util.EnumFacing;
 import net.minecraft.util.SoundCategory;
 import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.BlockPos.MutableBlockPos;
 import net.minecraft.util.math.MathHelper;
 import net.minecraft.world.EnumSkyBlock;
 import net.minecraft.world.IBlockAccess;
@@ -148,8 +156,19 @@ public class BlockDynamicLeaves extends BlockLeaves implements ITreePart, IAgeab
 	}
 
 	protected void doTick(World worldIn, BlockPos pos, IBlockState state, Random rand) {
+		if (ModConfigs.leafAgingQueue && !worldIn.isRemote) {
+			LeafAgingQueue.get(worldIn).offer(pos);//Aged within the budget at the end of the tick
+		} else {
+			tickNow(worldIn, pos, state, rand);
+		}
+	}
+
+	/**
+	 * Age the leaves if they're due.  Called by the {@link LeafAgingQueue} when the leaves' turn comes.
+	 */
+	public void tickNow(World worldIn, BlockPos pos, IBlockState state, Random rand) {
 		if (canTickAt(worldIn, pos) && getProperties(state).updateTick(worldIn, pos, state, rand)) {
-			age(worldIn, pos, state, rand, SafeChunkBounds.ANY);
+			age(worldIn, pos, state, rand, SafeChunkBounds.ANY);//A single block or few.  Not worth batching
 		}
 	}
 
@@ -169,16 +188,17 @@ public class BlockDynamicLeaves extends BlockLeaves implements ITreePart, IAgeab
 		boolean worldGen = safeBounds != SafeChunkBounds.ANY;
 
 		//Check hydration level.  Dry leaves are dead leaves.
-		int newHydro = getHydrationLevelFromNeighbors(world, pos, leavesProperties);
+		IBlockAccess access = SectionBlockAccess.of(world);
+		int newHydro = getHydrationLevelFromNeighbors(access, pos, leavesProperties);
 
 		if (newHydro == 0 || (!worldGen && !hasAdequateLight(state, world, leavesProperties, pos))) { //Light doesn't work right during worldgen so we'll just disable it during worldgen for now.
-			world.setBlockToAir(pos);//No water, no light .. no leaves
+			SectionBlockAccess.setBlockState(world, pos, Blocks.AIR.getDefaultState(), 3);//No water, no light .. no leaves
 			return -1;//Leaves were destroyed
 		} else {
 			if (oldHydro != newHydro) {//Only update if the hydro has changed. A little performance gain
 				//We do not use the 0x02 flag(update client) for performance reasons.  The clients do not need to know the hydration level of the leaves blocks as it
 				//does not affect appearance or behavior.  For the same reason we use the 0x04 flag to prevent the block from being re-rendered.
-				world.setBlockState(pos, leavesProperties.getDynamicLeavesState(newHydro), leavesProperties.appearanceChangesWithHydro() ? 2 : 4);
+				SectionBlockAccess.setBlockState(world, pos, leavesProperties.getDynamicLeavesState(newHydro), leavesProperties.appearanceChangesWithHydro() ? 2 : 4);
 			}
 		}
 
@@ -189,9 +209,9 @@ public class BlockDynamicLeaves extends BlockLeaves implements ITreePart, IAgeab
 			if (newHydro > 1 || rand.nextInt(4) == 0) {//we'll give it a 1 in 4 chance to grow leaves if hydro is low to help performance
 				BlockPos offpos = pos.offset(dir);
 				if (safeBounds.inBounds(offpos, true) && isLocationSuitableForNewLeaves(world, leavesProperties, offpos)) {//Attempt to grow new leaves
-					int hydro = getHydrationLevelFromNeighbors(world, offpos, leavesProperties);
+					int hydro = getHydrationLevelFromNeighbors(access, offpos, leavesProperties);
 					if (hydro > 0) {
-						world.setBlockState(offpos, newLeavesHander.getLeaves(world, offpos, leavesProperties.getDynamicLeavesState(hydro)), 2);//Removed Notify Neighbors Flag for performance
+						SectionBlockAccess.setBlockState(world, offpos, newLeavesHander.getLeaves(world, offpos, leavesProperties.getDynamicLeavesState(hydro)), 2);//Removed Notify Neighbors Flag for performance
 					}
 				}
 			}
@@ -225,6 +245,11 @@ public class BlockDynamicLeaves extends BlockLeaves implements ITreePart, IAgeab
 	public void breakBlock(World worldIn, BlockPos pos, IBlockState state) {
 	}
 
+	@Override
+	public void onBlockAdded(World worldIn, BlockPos pos, IBlockState state) {
+		LeafSectionFilter.leavesAdded(worldIn, pos);
+	}
+
 	@Override
 	public boolean isPassable(IBlockAccess access, BlockPos pos) {
 		return passableLeavesModLoaded ? super.isPassable(access, pos) : ModConfigs.isLeavesPassable;
@@ -353,7 +378,7 @@ public class BlockDynamicLeaves extends BlockLeaves implements ITreePart, IAgeab
 	public boolean growLeavesIfLocationIsSuitable(World world, ILeavesProperties leavesProp, BlockPos pos, int hydro) {
 		hydro = hydro == 0 ? leavesProp.getCellKit().getDefaultHydration() : hydro;
 		if (isLocationSuitableForNewLeaves(world, leavesProp, pos)) {
-			world.setBlockState(pos, leavesProp.getDynamicLeavesState(hydro), 2 | (leavesProp.appearanceChangesWithHydro() ? 1 : 0));//Removed Notify Neighbors Flag for performance
+			SectionBlockAccess.setBlockState(world, pos, leavesProp.getDynamicLeavesState(hydro), 2 | (leavesProp.appearanceChangesWithHydro() ? 1 : 0));//Removed Notify Neighbors Flag for performance
 			return true;
 		}
 		return false;
@@ -361,14 +386,15 @@ public class BlockDynamicLeaves extends BlockLeaves implements ITreePart, IAgeab
 
 	//Test if the block at this location is capable of being grown into
 	public boolean isLocationSuitableForNewLeaves(World world, ILeavesProperties leavesProperties, BlockPos pos) {
-		IBlockState blockState = world.getBlockState(pos);
+		IBlockAccess access = SectionBlockAccess.of(world);
+		IBlockState blockState = access.getBlockState(pos);
 		Block block = blockState.getBlock();
 
 		if (block instanceof BlockDynamicLeaves) {
 			return false;
 		}
 
-		IBlockState belowBlockState = world.getBlockState(pos.down());
+		IBlockState belowBlockState = access.getBlockState(pos.down());
 
 		//Prevent leaves from growing on the ground or above liquids
 		if ((belowBlockState.isFullCube() && (!(belowBlockState.getBlock() instanceof BlockLeaves))) || belowBlockState.getBlock() instanceof BlockLiquid) {
@@ -377,14 +403,14 @@ public class BlockDynamicLeaves extends BlockLeaves implements ITreePart, IAgeab
 
 		//Help to grow into double tall grass and ferns in a more natural way
 		if (block == Blocks.DOUBLE_PLANT) {
-			IBlockState bs = world.getBlockState(pos);
+			IBlockState bs = access.getBlockState(pos);
 			EnumBlockHalf half = bs.getValue(BlockDoublePlant.HALF);
 			if (half == EnumBlockHalf.UPPER) {//Top block of double plant
 				if (belowBlockState.getBlock() == Blocks.DOUBLE_PLANT) {
 					EnumPlantType type = belowBlockState.getValue(BlockDoublePlant.VARIANT);
 					if (type == EnumPlantType.GRASS || type == EnumPlantType.FERN) {//tall grass or fern
-						world.setBlockToAir(pos);
-						world.setBlockState(pos.down(), Blocks.TALLGRASS.getDefaultState()
+						SectionBlockAccess.setBlockState(world, pos, Blocks.AIR.getDefaultState(), 3);
+						SectionBlockAccess.setBlockState(world, pos.down(), Blocks.TALLGRASS.getDefaultState()
 							.withProperty(BlockTallGrass.TYPE, type == EnumPlantType.GRASS ? BlockTallGrass.EnumType.GRASS : BlockTallGrass.EnumType.FERN), 3);
 					}
 				}
@@ -401,9 +427,10 @@ public class BlockDynamicLeaves extends BlockLeaves implements ITreePart, IAgeab
 	 * Check to make sure the leaves have enough light to exist
 	 */
 	public boolean hasAdequateLight(IBlockState blockState, World world, ILeavesProperties leavesProperties, BlockPos pos) {
+		ColumnLightCache columns = ModConfigs.columnLightCache && ColumnLightCache.isUsable(world, pos) ? ColumnLightCache.get(world) : null;
 
 		//If clear sky is above the block then we needn't go any further
-		if (world.canBlockSeeSky(pos)) {
+		if (columns != null ? columns.canBlockSeeSky(world, pos) : SectionBlockAccess.canBlockSeeSky(world, pos)) {
 			return true;
 		}
 
@@ -414,8 +441,12 @@ public class BlockDynamicLeaves extends BlockLeaves implements ITreePart, IAgeab
 			if (isBottom(world, pos)) {//Only act on the bottom block of the Growable stack
 				//Prevent leaves from growing where they would be "smothered" from too much above foliage
 				int smotherLeaves = 0;
-				for (int i = 0; i < smother; i++) {
-					smotherLeaves += TreeHelper.isTreePart(world, pos.up(i + 1)) ? 1 : 0;
+				if (columns != null) {
+					smotherLeaves = columns.countTreePartsAbove(world, pos, smother);
+				} else {
+					for (int i = 0; i < smother; i++) {
+						smotherLeaves += TreeHelper.isTreePart(SectionBlockAccess.of(world), pos.up(i + 1)) ? 1 : 0;
+					}
 				}
 				if (smotherLeaves >= smother) {
 					return false;
@@ -427,14 +458,14 @@ public class BlockDynamicLeaves extends BlockLeaves implements ITreePart, IAgeab
 		//If there's already leaves here then don't kill them if it's a little dark
 		//If it's empty space then don't create leaves unless it's sufficiently bright
 		//The range allows for adaptation to the hysteretic effect that could cause blocks to rapidly appear and disappear 
-		return world.getLightFor(EnumSkyBlock.SKY, pos) >= (TreeHelper.isLeaves(blockState) ? leavesProperties.getLightRequirement() - 2 : leavesProperties.getLightRequirement());
+		return SectionBlockAccess.getLightFor(world, EnumSkyBlock.SKY, pos) >= (TreeHelper.isLeaves(blockState) ? leavesProperties.getLightRequirement() - 2 : leavesProperties.getLightRequirement());
 	}
 
 	/**
 	 * Used to find if the leaf block is at the bottom of the stack
 	 */
 	public static boolean isBottom(World world, BlockPos pos) {
-		IBlockState belowBlockState = world.getBlockState(pos.down());
+		IBlockState belowBlockState = SectionBlockAccess.of(world).getBlockState(pos.down());
 		ITreePart belowTreepart = TreeHelper.getTreePart(belowBlockState);
 		if (belowTreepart != TreeHelper.nullTreePart) {
 			return belowTreepart.getRadius(belowBlockState) > 1;//False for leaves, twigs, and dirt.  True for stocky branches
@@ -446,7 +477,25 @@ public class BlockDynamicLeaves extends BlockLeaves implements ITreePart, IAgeab
 	 * Gathers hydration levels from neighbors before pushing the values into the solver
 	 */
 	public int getHydrationLevelFromNeighbors(IBlockAccess access, BlockPos pos, ILeavesProperties leavesProp) {
+		ICellSolver solver = leavesProp.getCellKit().getCellSolver();
+		if (solver.getClass() != BasicSolver.class) {//Subclasses may solve differently
+			return getHydrationLevelFromCells(access, pos, leavesProp, solver);
+		}
+
+		//Pack the values the neighbors present to this block for the basic solver
+		MutableBlockPos deltaPos = new MutableBlockPos();
+		int packed = 0;
+		for (EnumFacing dir : EnumFacing.VALUES) {
+			deltaPos.setPos(pos).move(dir);
+			IBlockState state = access.getBlockState(deltaPos);
+			ICell cell = TreeHelper.getTreePart(state).getHydrationCell(access, deltaPos, state, dir, leavesProp);
+			packed |= (cell.getValueFromSide(dir.getOpposite()) & 15) << (dir.ordinal() << 2);
+		}
+
+		return ((BasicSolver) solver).solvePacked(packed);
+	}
 
+	private int getHydrationLevelFromCells(IBlockAccess access, BlockPos pos, ILeavesProperties leavesProp, ICellSolver solver) {
 		ICell[] cells = new ICell[6];
 
 		for (EnumFacing dir : EnumFacing.VALUES) {
@@ -456,7 +505,7 @@ public class BlockDynamicLeaves extends BlockLeaves implements ITreePart, IAgeab
 			cells[dir.ordinal()] = part.getHydrationCell(access, deltaPos, state, dir, leavesProp);
 		}
 
-		return leavesProp.getCellKit().getCellSolver().solve(cells);//Find center cell's value from neighbors		
+		return solver.solve(cells);//Find center cell's value from neighbors
 	}
 
 	@Override
@@ -481,10 +530,11 @@ public class BlockDynamicLeaves extends BlockLeaves implements ITreePart, IAgeab
 	 * @return True if the leaves are now at the coordinates.
 	 */
 	public boolean needLeaves(World world, BlockPos pos, ILeavesProperties leavesProperties) {
-		if (world.isAirBlock(pos)) {//Place Leaves if Air
+		IBlockAccess access = SectionBlockAccess.of(world);
+		if (access.isAirBlock(pos)) {//Place Leaves if Air
 			return this.growLeavesIfLocationIsSuitable(world, leavesProperties, pos, leavesProperties.getCellKit().getDefaultHydration());
 		} else {//Otherwise check if there's already this type of leaves there.
-			IBlockState blockState = world.getBlockState(pos);
+			IBlockState blockState = access.getBlockState(pos);
 			ITreePart treepart = TreeHelper.getTreePart(blockState);
 			return treepart == this && leavesProperties == getProperties(blockState);//Check if this is the same type of leaves
 		}
@@ -502,10 +552,11 @@ public class BlockDynamicLeaves extends BlockLeaves implements ITreePart, IAgeab
 
 		//Check to see if there's neighboring branches and abort if there's any found.
 		EnumFacing originDir = signal.dir.getOpposite();
+		IBlockAccess access = SectionBlockAccess.of(world);
 
 		for (EnumFacing dir : EnumFacing.VALUES) {
 			if (!dir.equals(originDir)) {
-				if (TreeHelper.isBranch(world.getBlockState(pos.offset(dir)))) {
+				if (TreeHelper.isBranch(access.getBlockState(pos.offset(dir)))) {
 					signal.success = false;
 					return signal;
 				}
@@ -575,8 +626,9 @@ public class BlockDynamicLeaves extends BlockLeaves implements ITreePart, IAgeab
 			ArrayList<BlockPos> branchList = new ArrayList<BlockPos>();
 
 			//Find all of the branches that are nearby
-			for (BlockPos dPos : leavesProperties.getCellKit().getLeafCluster().getAllNonZero()) {
-				dPos = pos.add(BlockPos.ORIGIN.subtract(dPos));//Becomes immutable at this point
+			CompiledVoxmap leafCluster = CompiledVoxmap.of(leavesProperties.getCellKit().getLeafCluster());
+			for (int i = 0; i < leafCluster.size(); i++) {
+				BlockPos dPos = pos.add(-leafCluster.getX(i), -leafCluster.getY(i), -leafCluster.getZ(i));//The branch end this leaf would belong to
 				IBlockState state = access.getBlockState(dPos);
 				if (TreeHelper.isBranch(state)) {
 					BlockBranch branch = TreeHelper.getBranch(state);
@@ -12,6 +12,8 @@ import com.ferreusveritas.dynamictrees.blocks.MimicProperty.IMimic;
 import com.ferreusveritas.dynamictrees.entities.EntityFallingTree;
 import com.ferreusveritas.dynamictrees.entities.EntityFallingTree.DestroyType;
 import com.ferreusveritas.dynamictrees.systems.GrowSignal;
+import com.ferreusveritas.dynamictrees.systems.TreeDormancy;
+import com.ferreusveritas.dynamictrees.systems.TreeGrowthScheduler;
 import com.ferreusveritas.dynamictrees.tileentity.TileEntitySpecies;
 import com.ferreusveritas.dynamictrees.trees.Species;
 import com.ferreusveritas.dynamictrees.trees.TreeFamily;
@@ -148,7 +150,11 @@ public class BlockRooty extends Block implements ITreePart, ITileEntityProvider,
 	@Override
 	public void randomTick(World world, BlockPos pos, IBlockState state, Random random) {
 		if (random.nextInt(ModConfigs.treeGrowthFolding) == 0) {
-			updateTree(state, world, pos, random, true);
+			if (ModConfigs.treeGrowthScheduler && !world.isRemote) {
+				TreeGrowthScheduler.get(world).schedule(pos);
+			} else {
+				updateTree(state, world, pos, random, true);
+			}
 		}
 	}
 
@@ -203,6 +209,9 @@ public class BlockRooty extends Block implements ITreePart, ITileEntityProvider,
 	public void doDecay(World world, BlockPos rootPos, IBlockState rootyState, Species species) {
 		if (!world.isRemote) {
 			if (TreeHelper.isRooty(rootyState)) {
+				if (ModConfigs.treeDormancy) {
+					TreeDormancy.get(world).wake(rootPos);//The tree changed.  Decay mustn't wait for a probe
+				}
 				updateTree(rootyState, world, rootPos, world.rand, true);//This will turn the rooty dirt back to it's default soil block. Usually dirt or sand
 				IBlockState newState = world.getBlockState(rootPos);
 
@@ -0,0 +1,180 @@
+package com.ferreusveritas.dynamictrees.blocks;
+
+import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.api.network.INodeInspector;
+import com.ferreusveritas.dynamictrees.api.network.MapSignal;
+import com.ferreusveritas.dynamictrees.api.treedata.ITreePart;
+import com.ferreusveritas.dynamictrees.blocks.BlockBranch.EnumDestroyMode;
+import com.ferreusveritas.dynamictrees.util.SectionBlockAccess;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.BlockPos.MutableBlockPos;
+import net.minecraft.world.IBlockAccess;
+import net.minecraft.world.World;
+
+import java.util.Arrays;
+
+/**
+ * An explicit stack version of {@link BlockBranchBasic#analyse}.  As far as the {@link INodeInspector}s are concerned
+ * it behaves identically to the recursive version.  run() is called on the way out and returnRun() on the way back in
+ * exactly the same order, and the depth, path, overflow, multiroot and localRootDir bookkeeping of the {@link MapSignal} is
+ * done the same way.
+ * <p>
+ * Neighbors are probed with a single {@link MutableBlockPos} so only the nodes that are actually visited get an
+ * immutable {@link BlockPos}.  Inspectors are allowed to hang on to those.  Tree parts that provide their own analyse
+ * implementation(rooty blocks, cactus, add-on branches) are simply delegated to.
+ * <p>
+ * Enabled per signal with {@link MapSignal#iterative}.
+ */
+public class BranchNetworkWalker {
+
+	private static final EnumFacing[] DIRS = EnumFacing.VALUES;
+	private static final int NODIR = -1;
+
+	private final World world;
+	private final IBlockAccess access;
+	private final MapSignal signal;
+	private final MutableBlockPos probe = new MutableBlockPos();
+
+	//The stack.  One entry per node currently being explored
+	private BlockPos[] posStack = new BlockPos[32];
+	private IBlockState[] stateStack = new IBlockState[32];
+	private int[] fromStack = new int[32];//Index of the direction the signal came from or NODIR
+	private int[] dirStack = new int[32];//Index of the next direction to explore
+	private int top = -1;
+
+	private BranchNetworkWalker(World world, MapSignal signal) {
+		this.world = world;
+		this.access = SectionBlockAccess.of(world);
+		this.signal = signal;
+	}
+
+	/**
+	 * Walk the branch network starting from the given node.
+	 *
+	 * @param branch     The branch whose analysis rules apply to the starting node
+	 * @param blockState The state of the starting node
+	 * @param world      The world
+	 * @param pos        The position of the starting node
+	 * @param fromDir    The direction that should not be analyzed; null to analyse in all directions
+	 * @param signal     The map signal object to gather data and/or perform operations
+	 * @return the specified signal for chaining
+	 */
+	public static MapSignal walk(BlockBranchBasic branch, IBlockState blockState, World world, BlockPos pos, EnumFacing fromDir, MapSignal signal) {
+		BranchNetworkWalker walker = new BranchNetworkWalker(world, signal);
+		if (walker.enter(branch, blockState, pos, fromDir == null ? NODIR : fromDir.getIndex())) {
+			walker.traverse();
+		}
+		return signal;
+	}
+
+	/**
+	 * @return true if the tree part uses the stock branch analysis and can be handled without recursion
+	 */
+	public static boolean isWalkable(ITreePart treePart) {
+		return treePart instanceof BlockBranchBasic && ((BlockBranchBasic) treePart).stockAnalysis;
+	}
+
+	/**
+	 * The equivalent of the top half of the recursive analyse.
+	 *
+	 * @return true if the node was pushed onto the stack.  false if the node was skipped or overflowed.
+	 */
+	private boolean enter(BlockBranchBasic branch, IBlockState state, BlockPos pos, int from) {
+
+		if (signal.overflow || (signal.trackVisited && signal.doTrackingVisited(pos))) {
+			return false;
+		}
+
+		if (signal.isOnPath(pos)) {// Came around a loop
+			BlockBranchBasic.breakLoop(world, signal.closeLoop(pos), signal);
+			return false;
+		}
+
+		if (signal.depth++ < branch.getMaxSignalDepth()) {// Prevents going too deep into large networks, or worse, being caught in a network loop
+			signal.markVisited(pos);
+			signal.enterPath(pos);
+			signal.run(state, world, pos, from == NODIR ? null : DIRS[from]);// Run the inspectors of choice
+			push(state, pos, from);
+			return true;
+		}
+
+		IBlockState realState = world.getBlockState(pos);
+		if (signal.destroyLoopedNodes && realState.getBlock() instanceof BlockBranch) {
+			((BlockBranch) realState.getBlock()).breakDeliberate(world, pos, EnumDestroyMode.OVERFLOW);// Destroy one of the offending nodes
+		}
+		signal.overflow = true;
+		signal.depth--;
+
+		return false;
+	}
+
+	private void traverse() {
+		while (top >= 0) {
+			int d = dirStack[top]++;
+
+			if (d < 6) {
+				if (d == fromStack[top]) {// don't count where the signal originated from
+					continue;
+				}
+
+				EnumFacing dir = DIRS[d];
+				BlockPos pos = posStack[top];
+				probe.setPos(pos.getX() + dir.getFrontOffsetX(), pos.getY() + dir.getFrontOffsetY(), pos.getZ() + dir.getFrontOffsetZ());
+
+				IBlockState deltaState = access.getBlockState(probe);
+				ITreePart treePart = TreeHelper.getTreePart(deltaState);
+
+				if (treePart.shouldAnalyse()) {
+					BlockPos deltaPos = probe.toImmutable();
+					int from = dir.getOpposite().getIndex();
+					if (isWalkable(treePart)) {
+						if (enter((BlockBranchBasic) treePart, deltaState, deltaPos, from)) {
+							continue;// The localRootDir is checked once the new node is popped
+						}
+					} else {
+						treePart.analyse(deltaState, world, deltaPos, DIRS[from], signal);
+					}
+					checkLocalRootDir(d);
+				}
+			} else {
+				signal.returnRun(stateStack[top], world, posStack[top], fromStack[top] == NODIR ? null : DIRS[fromStack[top]]);
+				signal.depth--;
+				signal.leavePath();
+				pop();
+				if (top >= 0) {
+					checkLocalRootDir(dirStack[top] - 1);
+				}
+			}
+		}
+	}
+
+	private void checkLocalRootDir(int d) {
+		// This should only be true for the originating block when the root node is found
+		if (signal.found && signal.localRootDir == null && fromStack[top] == NODIR) {
+			signal.localRootDir = DIRS[d];
+		}
+	}
+
+	private void push(IBlockState state, BlockPos pos, int from) {
+		if (++top == posStack.length) {
+			int size = posStack.length * 2;
+			posStack = Arrays.copyOf(posStack, size);
+			stateStack = Arrays.copyOf(stateStack, size);
+			fromStack = Arrays.copyOf(fromStack, size);
+			dirStack = Arrays.copyOf(dirStack, size);
+		}
+		posStack[top] = pos;
+		stateStack[top] = state;
+		fromStack[top] = from;
+		dirStack[top] = 0;
+	}
+
+	private void pop() {
+		posStack[top] = null;
+		stateStack[top] = null;
+		top--;
+	}
+
+}
@@ -361,8 +361,39 @@ public class CellKits {
 
 		private final short[] codes;
 
+		//The codes compiled for solvePacked
+		private final int[] repeated;//Hydration to count repeated in all six nibbles
+		private final int[] minCounts;
+		private final int[] results;
+
 		public BasicSolver(short[] codes) {
 			this.codes = codes;
+			this.repeated = new int[codes.length];
+			this.minCounts = new int[codes.length];
+			this.results = new int[codes.length];
+			for (int i = 0; i < codes.length; i++) {
+				repeated[i] = ((codes[i] >> 8) & 15) * 0x111111;
+				minCounts[i] = (codes[i] >> 4) & 15;
+				results[i] = codes[i] & 15;
+			}
+		}
+
+		/**
+		 * Same as {@link #solve(ICell[])} but with the values the six neighbors present to the center cell packed
+		 * into an int so nothing is allocated.
+		 *
+		 * @param packed The value from the neighbor in direction d in bits 4d to 4d+3
+		 * @return resulting hydration value of the center cell
+		 */
+		public int solvePacked(int packed) {
+			for (int i = 0; i < results.length; i++) {
+				int diff = packed ^ repeated[i];//Nibbles holding the hydration we're counting are now zero
+				int nonZero = ((diff & 0x777777) + 0x777777 | diff) & 0x888888;//High bit of every nibble that isn't zero
+				if (6 - Integer.bitCount(nonZero) >= minCounts[i]) {
+					return results[i];
+				}
+			}
+			return 0;
 		}
 
 		@Override
@@ -0,0 +1,147 @@
+package com.ferreusveritas.dynamictrees.command;
+
+import com.ferreusveritas.dynamictrees.ModConfigs;
+import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.systems.poissondisc.PoissonDisc;
+import com.ferreusveritas.dynamictrees.systems.poissondisc.PoissonDiscChunkCache;
+import com.ferreusveritas.dynamictrees.systems.poissondisc.PoissonDiscProvider;
+import com.ferreusveritas.dynamictrees.worldgen.BiomeRadiusCoordinator;
+import com.ferreusveritas.dynamictrees.worldgen.TreeGenerator;
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.command.WrongUsageException;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.text.TextComponentString;
+import net.minecraft.world.World;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+
+/**
+ * Times the parts of the mod that are run the most so changes to them can be measured in a running game.
+ * <p>
+ * discs: Generates the poisson discs of a square of chunks around the sender with a fresh provider seeded with the
+ * world seed so nothing is cached from earlier.
+ * <p>
+ * growth: Sends growth pulses through the tree on a rooty block one at a time and reports the time and the bytes
+ * allocated by the server thread per pulse.  Pulses are grown on the server thread for the run so all of the work is
+ * counted.  Allocations are only reported where the JVM can count them per thread.
+ */
+public class CommandBenchmark extends SubCommand {
+
+	public static final String BENCHMARK = "benchmark";
+	public static final String DISCS = "discs";
+	public static final String GROWTH = "growth";
+
+	@Override
+	public String getName() {
+		return BENCHMARK;
+	}
+
+	@Override
+	public List<String> getTabCompletions(MinecraftServer server, ICommandSender sender, String[] args, BlockPos targetPos) {
+		if (args.length == 2) {
+			return CommandBase.getListOfStringsMatchingLastWord(args, DISCS, GROWTH);
+		}
+		if (args.length >= 3 && args.length <= 5 && GROWTH.equals(args[1])) {
+			return CommandBase.getTabCompletionCoordinate(args, 2, targetPos);
+		}
+		return super.getTabCompletions(server, sender, args, targetPos);
+	}
+
+	@Override
+	public void execute(World world, ICommandSender sender, String[] args) throws CommandException {
+
+		if (args.length < 2) {
+			throw new WrongUsageException("commands.dynamictrees.benchmark.usage");
+		}
+
+		switch (args[1]) {
+			case DISCS:
+				benchmarkDiscs(world, sender, args.length > 2 ? CommandBase.parseInt(args[2], 1, 65536) : 256);
+				break;
+			case GROWTH:
+				if (args.length < 5) {
+					throw new WrongUsageException("commands.dynamictrees.benchmark.usage");
+				}
+				BlockPos pos = CommandBase.parseBlockPos(sender, args, 2, false);
+				if (!TreeHelper.getTreePart(world.getBlockState(pos)).isRootNode()) {
+					throw new CommandException("commands.dynamictrees.growpulse.norootyerror", pos.getX() + " " + pos.getY() + " " + pos.getZ());
+				}
+				benchmarkGrowth(world, sender, pos, args.length > 5 ? CommandBase.parseInt(args[5], 1, 1000) : 100);
+				break;
+			default:
+				throw new WrongUsageException("commands.dynamictrees.benchmark.usage");
+		}
+	}
+
+	private void benchmarkDiscs(World world, ICommandSender sender, int chunks) {
+		PoissonDiscProvider provider = new PoissonDiscProvider(new BiomeRadiusCoordinator(TreeGenerator.getTreeGenerator(), world));
+		provider.setSeed(world.getSeed());
+
+		int side = (int) Math.ceil(Math.sqrt(chunks));
+		BlockPos pos = sender.getPosition();
+		int startX = (pos.getX() >> 4) - side / 2;
+		int startZ = (pos.getZ() >> 4) - side / 2;
+
+		int discs = 0;
+		long start = System.nanoTime();
+		for (int i = 0; i < chunks; i++) {
+			List<PoissonDisc> chunkDiscs = provider.getPoissonDiscs(startX + i % side, 0, startZ + i / side);
+			discs += chunkDiscs != null ? chunkDiscs.size() : 0;
+		}
+		long elapsed = System.nanoTime() - start;
+
+		PoissonDiscChunkCache cache = provider.getChunkCache();
+		sender.sendMessage(new TextComponentString("Discs: " + chunks + " chunks in " + String.format("%.1f", elapsed / 1e6) + "ms, " +
+			String.format("%.1f", elapsed / 1e3 / chunks) + "us per chunk, " + discs + " discs, " + cache.size() + " sets cached, " +
+			cache.getRadiusGrids() + " radius grids"));
+	}
+
+	private void benchmarkGrowth(World world, ICommandSender sender, BlockPos rootPos, int pulses) {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		com.sun.management.ThreadMXBean allocations = threads instanceof com.sun.management.ThreadMXBean &&
+			((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported() ? (com.sun.management.ThreadMXBean) threads : null;
+		long threadId = Thread.currentThread().getId();
+
+		long totalTime = 0;
+		long maxTime = 0;
+		long totalBytes = 0;
+		long maxBytes = 0;
+		int grown = 0;
+		boolean async = ModConfigs.asyncTreeGrowth;
+		ModConfigs.asyncTreeGrowth = false;
+		try {
+			for (; grown < pulses && TreeHelper.isRooty(world.getBlockState(rootPos)); grown++) {//Stops if the tree dies
+				long bytes = allocations != null ? allocations.getThreadAllocatedBytes(threadId) : 0;
+				long start = System.nanoTime();
+				TreeHelper.growPulse(world, rootPos);
+				long time = System.nanoTime() - start;
+				bytes = allocations != null ? allocations.getThreadAllocatedBytes(threadId) - bytes : 0;
+
+				totalTime += time;
+				maxTime = Math.max(maxTime, time);
+				totalBytes += bytes;
+				maxBytes = Math.max(maxBytes, bytes);
+			}
+		} finally {
+			ModConfigs.asyncTreeGrowth = async;
+		}
+
+		if (grown == 0) {
+			return;
+		}
+
+		sender.sendMessage(new TextComponentString("Growth: " + grown + " pulses in " + String.format("%.1f", totalTime / 1e6) + "ms, " +
+			String.format("%.1f", totalTime / 1e3 / grown) + "us per pulse, " + String.format("%.1f", maxTime / 1e3) + "us at most"));
+		if (allocations != null) {
+			sender.sendMessage(new TextComponentString("Allocated: " + totalBytes / grown + " bytes per pulse, " + maxBytes + " at most"));
+		} else {
+			sender.sendMessage(new TextComponentString("Allocated: not counted by this JVM"));
+		}
+	}
+
+}
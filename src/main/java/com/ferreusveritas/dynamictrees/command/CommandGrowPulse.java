@@ -45,7 +45,7 @@ public class CommandGrowPulse extends SubCommand {
 
 		ITreePart part = TreeHelper.getTreePart(world.getBlockState(pos));
 		if (part.isRootNode()) {
-			TreeHelper.growPulse(world, pos);
+			TreeHelper.growPulses(world, pos, args.length > 4 ? CommandBase.parseInt(args[4], 1, 1000) : 1);
 		} else {
 			throw new CommandException("commands.dynamictrees.growpulse.norootyerror", pos.getX() + " " + pos.getY() + " " + pos.getZ());
 		}
@@ -0,0 +1,158 @@
+package com.ferreusveritas.dynamictrees.command;
+
+import com.ferreusveritas.dynamictrees.ModConfigs;
+import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.api.TreeRegistry;
+import com.ferreusveritas.dynamictrees.trees.Species;
+import com.ferreusveritas.dynamictrees.util.LongMap;
+import com.ferreusveritas.dynamictrees.util.SafeChunkBounds;
+import com.ferreusveritas.dynamictrees.worldgen.JoCode;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.command.WrongUsageException;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.BlockPos.MutableBlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.text.TextComponentString;
+import net.minecraft.world.World;
+import net.minecraft.world.biome.Biome;
+
+import java.util.List;
+
+/**
+ * Generates every stored JoCode of a species at a position twice, once aging the leaves in the world and once with the
+ * {@link com.ferreusveritas.dynamictrees.worldgen.LeafSolver}, and counts the leaves that came out different.  The
+ * area is put back as it was after each tree.  The world random is reseeded the same for both so the only difference
+ * is the solver.
+ */
+public class CommandLeafSolverCheck extends SubCommand {
+
+	public static final String LEAFSOLVERCHECK = "leafsolvercheck";
+
+	private static final int MARGIN = 2;//Blocks around the leaf map that are saved and put back
+
+	@Override
+	public String getName() {
+		return LEAFSOLVERCHECK;
+	}
+
+	@Override
+	public List<String> getTabCompletions(MinecraftServer server, ICommandSender sender, String[] args, BlockPos targetPos) {
+
+		switch (args.length) {
+			case 2:
+			case 3:
+			case 4:
+				return CommandBase.getTabCompletionCoordinate(args, 1, targetPos);
+			case 5:
+				return CommandBase.getListOfStringsMatchingLastWord(args, Species.REGISTRY.getKeys());
+		}
+
+		return super.getTabCompletions(server, sender, args, targetPos);
+	}
+
+	@Override
+	public void execute(World world, ICommandSender sender, String[] args) throws CommandException {
+
+		if (args.length < 5) {
+			throw new WrongUsageException("commands.dynamictrees.leafsolvercheck.usage");
+		}
+
+		BlockPos rootPos = CommandBase.parseBlockPos(sender, args, 1, false);
+		Species species = TreeRegistry.findSpeciesSloppy(args[4]);
+		if (species == Species.NULLSPECIES || species.getJoCodeStore() == null) {
+			throw new WrongUsageException("commands.dynamictrees.setree.specieserror", args[4]);
+		}
+
+		int reach = 8 + MARGIN;
+		BlockPos min = rootPos.add(-reach, -MARGIN, -reach);
+		BlockPos max = rootPos.add(reach, species.getWorldGenLeafMapHeight() + MARGIN, reach);
+		SafeChunkBounds safeBounds = new SafeChunkBounds(world, new ChunkPos(rootPos.add(-8, 0, -8)));//Centered in the area worldgen would place it in
+		Biome biome = world.getBiome(rootPos);
+		IBlockState[] saved = save(world, min, max);
+		long seed = world.rand.nextLong();
+
+		int codes = 0;
+		int same = 0;
+		int onlyAged = 0;
+		int onlySolved = 0;
+		int differ = 0;
+		boolean solver = ModConfigs.worldGenLeafSolver;
+		try {
+			for (int radius = 2; radius <= 8; radius++) {
+				for (JoCode code : species.getJoCodeStore().getCodes(radius)) {
+					ModConfigs.worldGenLeafSolver = false;
+					world.rand.setSeed(seed);
+					code.generate(world, species, rootPos, biome, EnumFacing.SOUTH, radius, safeBounds);
+					LongMap<IBlockState> aged = collectLeaves(world, min, max);
+					restore(world, min, max, saved);
+
+					ModConfigs.worldGenLeafSolver = true;
+					world.rand.setSeed(seed);
+					code.generate(world, species, rootPos, biome, EnumFacing.SOUTH, radius, safeBounds);
+					LongMap<IBlockState> solved = collectLeaves(world, min, max);
+					restore(world, min, max, saved);
+
+					int[] diffs = new int[3];
+					aged.forEach((state, key) -> {
+						IBlockState other = solved.get(key);
+						diffs[other == null ? 0 : other != state ? 2 : 1]++;
+					});
+					int missing = solved.size() - (aged.size() - diffs[0]);
+
+					codes++;
+					if (diffs[0] == 0 && diffs[2] == 0 && missing == 0) {
+						same++;
+					}
+					onlyAged += diffs[0];
+					onlySolved += missing;
+					differ += diffs[2];
+				}
+			}
+		} finally {
+			ModConfigs.worldGenLeafSolver = solver;
+		}
+
+		sender.sendMessage(new TextComponentString("Leaf solver check: " + same + " of " + codes + " codes match, " + onlyAged + " leaves only when aged, " +
+			onlySolved + " only when solved, " + differ + " with different states"));
+	}
+
+	private static IBlockState[] save(World world, BlockPos min, BlockPos max) {
+		IBlockState[] states = new IBlockState[volume(min, max)];
+		int i = 0;
+		for (MutableBlockPos pos : BlockPos.getAllInBoxMutable(min, max)) {
+			states[i++] = world.getBlockState(pos);
+		}
+		return states;
+	}
+
+	private static void restore(World world, BlockPos min, BlockPos max, IBlockState[] states) {
+		int i = 0;
+		for (MutableBlockPos pos : BlockPos.getAllInBoxMutable(min, max)) {
+			IBlockState state = states[i++];
+			if (world.getBlockState(pos) != state) {
+				world.setBlockState(pos, state, 2 | 16);
+			}
+		}
+	}
+
+	private static LongMap<IBlockState> collectLeaves(World world, BlockPos min, BlockPos max) {
+		LongMap<IBlockState> leaves = new LongMap<>(256);
+		for (MutableBlockPos pos : BlockPos.getAllInBoxMutable(min, max)) {
+			IBlockState state = world.getBlockState(pos);
+			if (TreeHelper.isLeaves(state)) {
+				leaves.put(pos.toLong(), state);
+			}
+		}
+		return leaves;
+	}
+
+	private static int volume(BlockPos min, BlockPos max) {
+		return (max.getX() - min.getX() + 1) * (max.getY() - min.getY() + 1) * (max.getZ() - min.getZ() + 1);
+	}
+
+}
@@ -0,0 +1,96 @@
+package com.ferreusveritas.dynamictrees.command;
+
+import com.ferreusveritas.dynamictrees.systems.AsyncTreeGrowth;
+import com.ferreusveritas.dynamictrees.systems.ColumnLightCache;
+import com.ferreusveritas.dynamictrees.systems.LeafAgingQueue;
+import com.ferreusveritas.dynamictrees.systems.LeafSectionFilter;
+import com.ferreusveritas.dynamictrees.systems.TreeDormancy;
+import com.ferreusveritas.dynamictrees.systems.TreeGrowthScheduler;
+import com.ferreusveritas.dynamictrees.systems.TreeSkeletonCache;
+import com.ferreusveritas.dynamictrees.systems.poissondisc.PoissonDiscChunkCache;
+import com.ferreusveritas.dynamictrees.util.BlockWriteBatch;
+import com.ferreusveritas.dynamictrees.worldgen.LeafSolver;
+import com.ferreusveritas.dynamictrees.worldgen.TreeGenerator;
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.text.TextComponentString;
+import net.minecraft.world.World;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class CommandStats extends SubCommand {
+
+	public static final String STATS = "stats";
+	public static final String RESET = "reset";
+
+	@Override
+	public String getName() {
+		return STATS;
+	}
+
+	@Override
+	public List<String> getTabCompletions(MinecraftServer server, ICommandSender sender, String[] args, BlockPos targetPos) {
+		if (args.length == 2) {
+			return CommandBase.getListOfStringsMatchingLastWord(args, RESET);
+		}
+		return Collections.emptyList();
+	}
+
+	@Override
+	public void execute(World world, ICommandSender sender, String[] args) throws CommandException {
+		TreeSkeletonCache skeletons = TreeSkeletonCache.get(world);
+		TreeGrowthScheduler scheduler = TreeGrowthScheduler.get(world);
+		AsyncTreeGrowth asyncGrowth = AsyncTreeGrowth.get(world);
+		TreeDormancy dormancy = TreeDormancy.get(world);
+		LeafAgingQueue leafAging = LeafAgingQueue.get(world);
+		ColumnLightCache columns = ColumnLightCache.get(world);
+		LeafSectionFilter leafFilter = LeafSectionFilter.get(world);
+		Map<Integer, PoissonDiscChunkCache> discCaches = TreeGenerator.getTreeGenerator().getCircleProvider().getChunkCaches();
+
+		if (args.length >= 2 && RESET.equals(args[1])) {
+			skeletons.resetCounters();
+			scheduler.resetCounters();
+			asyncGrowth.resetCounters();
+			dormancy.resetCounters();
+			leafAging.resetCounters();
+			LeafSolver.resetCounters();
+			columns.resetCounters();
+			BlockWriteBatch.resetCounters();
+			leafFilter.resetCounters();
+			discCaches.values().forEach(PoissonDiscChunkCache::resetCounters);
+		}
+
+		long lookups = skeletons.getHits() + skeletons.getMisses();
+		sender.sendMessage(new TextComponentString("Tree skeletons: " + skeletons.size() + " cached, " +
+			skeletons.getHits() + " hits, " + skeletons.getMisses() + " misses (" + (lookups > 0 ? skeletons.getHits() * 100 / lookups : 0) + "%), " +
+			skeletons.getInvalidations() + " invalidations"));
+		sender.sendMessage(new TextComponentString(String.format("Growth scheduler: %d trees queued (%d updates), last tick %d updates in %.2fms, average %.2fms, %d updates total",
+			scheduler.getQueueDepth(), scheduler.getPendingUpdates(), scheduler.getLastTickUpdates(), scheduler.getLastTickMillis(), scheduler.getAverageTickMillis(), scheduler.getTotalUpdates())));
+		sender.sendMessage(new TextComponentString("Async growth: " + asyncGrowth.getInFlight() + " in flight, " + asyncGrowth.getApplied() + " applied, " +
+			asyncGrowth.getConflicts() + " conflicts, " + asyncGrowth.getFailures() + " failures"));
+		sender.sendMessage(new TextComponentString("Dormancy: " + dormancy.getNumDormant() + " dormant trees, " + dormancy.getSkipped() + " updates skipped, " +
+			dormancy.getCaughtUp() + " trees caught up, " + dormancy.getCatchUpsWaiting() + " chunks waiting"));
+		sender.sendMessage(new TextComponentString(String.format("Leaf aging queue: %d leaves waiting, last tick %d aged in %.2fms, average %.2fms, %d aged total, %d merged ticks",
+			leafAging.getBacklog(), leafAging.getLastTickAged(), leafAging.getLastTickMillis(), leafAging.getAverageTickMillis(), leafAging.getTotalAged(), leafAging.getMerged())));
+		sender.sendMessage(new TextComponentString(String.format("Worldgen leaf solver: %d trees, %.2f iterations average, %d max, %d unconverged",
+			LeafSolver.getSolves(), LeafSolver.getAverageIterations(), LeafSolver.getMaxIterations(), LeafSolver.getUnconverged())));
+		long columnLookups = columns.getHits() + columns.getMisses();
+		sender.sendMessage(new TextComponentString("Leaf light columns: " + columns.getHits() + " hits, " + columns.getMisses() + " misses (" +
+			(columnLookups > 0 ? columns.getHits() * 100 / columnLookups : 0) + "%)"));
+		sender.sendMessage(new TextComponentString("Write batches: " + BlockWriteBatch.getBatches() + " applied, " + BlockWriteBatch.getApplied() + " blocks set, " +
+			BlockWriteBatch.getMerged() + " changes merged"));
+		sender.sendMessage(new TextComponentString("Leaf notify filter: " + leafFilter.getFiltered() + " notifications filtered, " + leafFilter.getProcessed() + " processed"));
+		discCaches.forEach((dim, discs) -> {
+			long discLookups = discs.getHits() + discs.getMisses();
+			sender.sendMessage(new TextComponentString("Poisson discs dim " + dim + ": " + discs.size() + " chunks cached (~" + discs.size() * PoissonDiscChunkCache.BYTESPERSET / 1024 + "KB), " +
+				discs.getHits() + " hits, " + discs.getMisses() + " misses (" + (discLookups > 0 ? discs.getHits() * 100 / discLookups : 0) + "%), " + discs.getEvictions() + " evictions, " +
+				discs.getRadiusGrids() + " radius grids made"));
+		});
+	}
+
+}
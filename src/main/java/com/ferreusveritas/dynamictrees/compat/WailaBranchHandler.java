@@ -7,9 +7,12 @@ import com.ferreusveritas.dynamictrees.api.network.MapSignal;
 import com.ferreusveritas.dynamictrees.blocks.BlockBranch;
 import com.ferreusveritas.dynamictrees.blocks.BlockTrunkShell;
 import com.ferreusveritas.dynamictrees.blocks.BlockTrunkShell.ShellMuse;
+import com.ferreusveritas.dynamictrees.systems.TreeSkeleton;
+import com.ferreusveritas.dynamictrees.systems.TreeSkeletonCache;
 import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeNetVolume;
 import com.ferreusveritas.dynamictrees.trees.Species;
 import com.ferreusveritas.dynamictrees.trees.Species.LogsAndSticks;
+import com.ferreusveritas.dynamictrees.util.LongSet;
 import mcp.mobius.waila.api.IWailaConfigHandler;
 import mcp.mobius.waila.api.IWailaDataAccessor;
 import mcp.mobius.waila.api.IWailaDataProvider;
@@ -34,6 +37,11 @@ public class WailaBranchHandler implements IWailaDataProvider {
 	private Species lastSpecies = Species.NULLSPECIES;
 	private float lastVolume = 0;
 
+	//Branches whose tree couldn't be cached as a skeleton lately.  Not tried again until the window is over.  Server only
+	private static final int UNCACHEABLETICKS = 20;
+	private final LongSet uncacheable = new LongSet();
+	private long uncacheableSince;
+
 	@Override
 	public List<String> getWailaBody(ItemStack itemStack, List<String> tooltip, IWailaDataAccessor accessor, IWailaConfigHandler config) {
 
@@ -66,7 +74,9 @@ public class WailaBranchHandler implements IWailaDataProvider {
 			return tooltip;
 		}
 
-		if (!lastPos.equals(pos)) {
+		if (nbtData.hasKey("volume")) {//Worked out by the server which sees every change to the tree
+			lastVolume = nbtData.getFloat("volume");
+		} else if (!lastPos.equals(pos)) {
 			lastVolume = getTreeVolume(accessor.getWorld(), pos);
 		}
 
@@ -129,6 +139,30 @@ public class WailaBranchHandler implements IWailaDataProvider {
 		if (block instanceof BlockBranch) {
 			BlockBranch branch = (BlockBranch) block;
 
+			//Not on the client.  Sections resent by the server replace blocks without telling the cache
+			if (ModConfigs.treeSkeletonCache && !world.isRemote) {
+				long tick = world.getTotalWorldTime();
+				if (tick - uncacheableSince > UNCACHEABLETICKS || tick < uncacheableSince) {
+					uncacheable.clear();
+					uncacheableSince = tick;
+				}
+
+				if (!uncacheable.contains(pos)) {
+					TreeSkeletonCache skeletons = TreeSkeletonCache.get(world);
+					TreeSkeleton skeleton = skeletons.findSkeleton(pos);
+					if (skeleton == null) {//Map the tree from the root so that every branch of it is cached
+						BlockPos rootPos = TreeHelper.findRootNode(world, pos);
+						if (rootPos != BlockPos.ORIGIN) {
+							skeleton = skeletons.getSkeleton(world, rootPos);
+						}
+					}
+					if (skeleton != null && skeleton.containsNode(pos.toLong())) {
+						return skeleton.getVolume() * ModConfigs.treeHarvestMultiplier;
+					}
+					uncacheable.add(pos);//Orphaned or too big to cache.  Don't look for the root again right away
+				}
+			}
+
 			// Analyze only part of the tree beyond the break point and calculate it's volume, then destroy the branches
 			NodeNetVolume volumeSum = new NodeNetVolume();
 			branch.analyse(state, world, pos, null, new MapSignal(volumeSum));
@@ -146,6 +180,7 @@ public class WailaBranchHandler implements IWailaDataProvider {
 
 		if (species != Species.NULLSPECIES) {
 			tag.setString("species", species.getRegistryName().toString());
+			tag.setFloat("volume", getTreeVolume(world, pos));
 		}
 
 		return tag;
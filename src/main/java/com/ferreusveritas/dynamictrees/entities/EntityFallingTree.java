@@ -13,6 +13,7 @@ import com.ferreusveritas.dynamictrees.util.BlockBounds;
 import com.ferreusveritas.dynamictrees.util.BranchDestructionData;
 import com.ferreusveritas.dynamictrees.util.BranchDestructionData.PosType;
 import com.ferreusveritas.dynamictrees.util.CoordUtils.Surround;
+import com.ferreusveritas.dynamictrees.util.LongSet;
 import com.google.common.collect.Iterables;
 import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
@@ -29,6 +30,7 @@ import net.minecraft.network.datasync.EntityDataManager;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.BlockPos.MutableBlockPos;
 import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.World;
@@ -36,7 +38,6 @@ import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 
@@ -296,16 +297,18 @@ public class EntityFallingTree extends Entity implements IModelTracker {
 	 * This is run server side to update all of the neighbors
 	 */
 	protected void updateNeighbors() {
-		HashSet<BlockPos> destroyed = new HashSet<>();
-		HashSet<BlockPos> toUpdate = new HashSet<>();
+		LongSet destroyed = new LongSet(destroyData.getNumBranches() + destroyData.getNumLeaves());
+		LongSet toUpdate = new LongSet();
+		Iterable<BlockPos> destroyedPositions = Iterables.concat(destroyData.getPositions(PosType.BRANCHES), destroyData.getPositions(PosType.LEAVES));
 
 		//Gather a set of all of the block positions that were recently destroyed
-		Iterables.concat(destroyData.getPositions(PosType.BRANCHES), destroyData.getPositions(PosType.LEAVES)).forEach(pos -> destroyed.add(pos));
+		destroyedPositions.forEach(destroyed::add);
 
 		//Gather a list of all of the non-destroyed blocks surrounding each destroyed block
-		for (BlockPos d : destroyed) {
+		MutableBlockPos dPos = new MutableBlockPos();
+		for (BlockPos d : destroyedPositions) {
 			for (EnumFacing dir : EnumFacing.values()) {
-				BlockPos dPos = d.offset(dir);
+				dPos.setPos(d).move(dir);
 				if (!destroyed.contains(dPos)) {
 					toUpdate.add(dPos);
 				}
@@ -313,7 +316,10 @@ public class EntityFallingTree extends Entity implements IModelTracker {
 		}
 
 		//Update each of the blocks that need to be updated
-		toUpdate.forEach(pos -> world.neighborChanged(pos, Blocks.AIR, pos));
+		toUpdate.forEach(packed -> {
+			BlockPos pos = BlockPos.fromLong(packed);
+			world.neighborChanged(pos, Blocks.AIR, pos);
+		});
 	}
 
 	protected IAnimationHandler selectAnimationHandler() {
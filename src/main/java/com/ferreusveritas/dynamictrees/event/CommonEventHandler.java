@@ -2,8 +2,18 @@ package com.ferreusveritas.dynamictrees.event;
 
 import com.ferreusveritas.dynamictrees.api.WorldGenRegistry;
 import com.ferreusveritas.dynamictrees.client.TooltipHandler;
+import com.ferreusveritas.dynamictrees.ModConfigs;
 import com.ferreusveritas.dynamictrees.seasons.SeasonHelper;
+import com.ferreusveritas.dynamictrees.systems.AsyncTreeGrowth;
+import com.ferreusveritas.dynamictrees.systems.ColumnLightCache;
+import com.ferreusveritas.dynamictrees.systems.LeafAgingQueue;
+import com.ferreusveritas.dynamictrees.systems.LeafSectionFilter;
+import com.ferreusveritas.dynamictrees.systems.TreeDormancy;
+import com.ferreusveritas.dynamictrees.systems.TreeGrowthScheduler;
+import com.ferreusveritas.dynamictrees.systems.TreeRootIndex;
+import com.ferreusveritas.dynamictrees.systems.TreeSkeletonCache;
 import net.minecraftforge.event.entity.player.ItemTooltipEvent;
+import net.minecraftforge.event.world.ChunkEvent;
 import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.fml.common.gameevent.TickEvent.Phase;
@@ -24,6 +34,22 @@ public class CommonEventHandler {
 		if (event.type == Type.WORLD && event.phase == Phase.START) {
 			SeasonHelper.updateTick(event.world, event.world.getWorldTime());
 		}
+
+		if (event.side == Side.SERVER && event.phase == Phase.END && ModConfigs.treeGrowthScheduler) {
+			TreeGrowthScheduler.get(event.world).tick(event.world);
+		}
+
+		if (event.side == Side.SERVER && event.phase == Phase.END && ModConfigs.asyncTreeGrowth) {
+			AsyncTreeGrowth.get(event.world).applyCompleted(event.world);
+		}
+
+		if (event.side == Side.SERVER && event.phase == Phase.END) {
+			TreeDormancy.get(event.world).tick(event.world);
+		}
+
+		if (event.side == Side.SERVER && event.phase == Phase.END && ModConfigs.leafAgingQueue) {
+			LeafAgingQueue.get(event.world).tick(event.world);
+		}
 	}
 
 	@SubscribeEvent
@@ -37,6 +63,29 @@ public class CommonEventHandler {
 		event.getWorld().addEventListener(new WorldListener(event.getWorld(), event.getWorld().getMinecraftServer()));
 	}
 
+	@SubscribeEvent
+	public void onWorldUnload(WorldEvent.Unload event) {
+		TreeSkeletonCache.unloadWorld(event.getWorld());
+		TreeRootIndex.unloadWorld(event.getWorld());
+		TreeGrowthScheduler.unloadWorld(event.getWorld());
+		AsyncTreeGrowth.unloadWorld(event.getWorld());
+		TreeDormancy.unloadWorld(event.getWorld());
+		LeafAgingQueue.unloadWorld(event.getWorld());
+		ColumnLightCache.unloadWorld(event.getWorld());
+		LeafSectionFilter.unloadWorld(event.getWorld());
+	}
+
+	@SubscribeEvent
+	public void onChunkUnload(ChunkEvent.Unload event) {
+		TreeSkeletonCache.get(event.getWorld()).unloadChunk(event.getChunk().x, event.getChunk().z);
+		if (!event.getWorld().isRemote) {
+			TreeGrowthScheduler.get(event.getWorld()).unloadChunk(event.getChunk().x, event.getChunk().z);
+			TreeDormancy.get(event.getWorld()).unloadChunk(event.getChunk().x, event.getChunk().z);
+			LeafAgingQueue.get(event.getWorld()).unloadChunk(event.getChunk().x, event.getChunk().z);
+			LeafSectionFilter.get(event.getWorld()).unloadChunk(event.getChunk().x, event.getChunk().z);
+		}
+	}
+
 	@SubscribeEvent
 	@SideOnly(Side.CLIENT)
 	public void onItemTooltipAdded(ItemTooltipEvent event) {
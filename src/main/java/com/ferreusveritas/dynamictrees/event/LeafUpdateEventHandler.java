@@ -1,6 +1,8 @@
 package com.ferreusveritas.dynamictrees.event;
 
+import com.ferreusveritas.dynamictrees.ModConfigs;
 import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.systems.LeafSectionFilter;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
@@ -14,6 +16,9 @@ public class LeafUpdateEventHandler {
 	@SubscribeEvent(priority = EventPriority.HIGH)
 	public void UpdateNeighbour(BlockEvent.NeighborNotifyEvent event) {
 		World world = event.getWorld();
+		if (ModConfigs.leafNotifyFilter && !world.isRemote && !LeafSectionFilter.get(world).mayNeighborLeaves(world, event.getPos())) {
+			return;//No leaves anywhere near
+		}
 		for (EnumFacing facing : event.getNotifiedSides()) {
 			BlockPos blockPos = event.getPos().offset(facing);
 			if (TreeHelper.isLeaves(world.getBlockState(blockPos))) {
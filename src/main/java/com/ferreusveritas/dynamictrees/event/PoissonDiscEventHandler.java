@@ -1,5 +1,8 @@
 package com.ferreusveritas.dynamictrees.event;
 
+import com.ferreusveritas.dynamictrees.ModConfigs;
+import com.ferreusveritas.dynamictrees.systems.TreeDormancy;
+import com.ferreusveritas.dynamictrees.systems.TreeRootIndex;
 import com.ferreusveritas.dynamictrees.systems.poissondisc.PoissonDiscProviderUniversal;
 import com.ferreusveritas.dynamictrees.worldgen.TreeGenerator;
 import net.minecraft.nbt.NBTTagByteArray;
@@ -32,6 +35,12 @@ public class PoissonDiscEventHandler {
 			byte[] circleData = event.getData().getByteArray("GTCD");
 			PoissonDiscProviderUniversal cp = TreeGenerator.getTreeGenerator().getCircleProvider();
 			cp.setChunkPoissonData(world, event.getChunk().x, 0, event.getChunk().z, circleData);
+
+			if (ModConfigs.treeRootIndex) {
+				TreeRootIndex.get(world).loadChunkData(event.getChunk().x, event.getChunk().z, event.getData().getIntArray("DTRI"));
+			}
+
+			TreeDormancy.get(world).loadChunk(world, event.getChunk().x, event.getChunk().z, event.getData().getLong("DTGT"));
 		}
 	}
 
@@ -43,6 +52,18 @@ public class PoissonDiscEventHandler {
 		NBTTagByteArray circleByteArray = new NBTTagByteArray(circleData);
 		event.getData().setTag("GTCD", circleByteArray);//Growing Trees Circle Data
 
+		if (!world.isRemote) {
+			event.getData().setLong("DTGT", world.getTotalWorldTime());//Dynamic Trees Growth Time.  For catching up when loaded again
+		}
+
+		if (ModConfigs.treeRootIndex && !world.isRemote) {
+			TreeRootIndex rootIndex = TreeRootIndex.get(world);
+			event.getData().setIntArray("DTRI", rootIndex.getChunkData(event.getChunk().x, event.getChunk().z));//Dynamic Trees Root Index
+			if (!event.getChunk().isLoaded()) {
+				rootIndex.unloadChunk(event.getChunk().x, event.getChunk().z);
+			}
+		}
+
 		// Unload circles here if the chunk is no longer loaded.
 		if (!event.getChunk().isLoaded()) {
 			cp.unloadChunkPoissonData(world, event.getChunk().x, 0, event.getChunk().z);
@@ -1,6 +1,13 @@
 package com.ferreusveritas.dynamictrees.event;
 
+import com.ferreusveritas.dynamictrees.ModConfigs;
+import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.blocks.BlockRooty;
 import com.ferreusveritas.dynamictrees.blocks.BlockTrunkShell;
+import com.ferreusveritas.dynamictrees.systems.ColumnLightCache;
+import com.ferreusveritas.dynamictrees.systems.TreeDormancy;
+import com.ferreusveritas.dynamictrees.systems.TreeRootIndex;
+import com.ferreusveritas.dynamictrees.systems.TreeSkeletonCache;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.player.EntityPlayer;
@@ -25,10 +32,41 @@ public class WorldListener implements IWorldEventListener {
 
 	@Override
 	public void notifyBlockUpdate(World worldIn, BlockPos pos, IBlockState oldState, IBlockState newState, int flags) {
+		if (ModConfigs.treeSkeletonCache) {
+			TreeSkeletonCache.get(world).blockChanged(pos, oldState, newState);
+		}
+		if (!world.isRemote) {
+			wakeTree(pos, oldState, newState);
+			if (ModConfigs.columnLightCache) {
+				ColumnLightCache.get(world).blockChanged(pos);
+			}
+		}
+	}
+
+	/**
+	 * Wake up the tree of a branch that changed since it may be able to grow again.  Only trees in the root index can
+	 * be found without mapping.  The rest wake up on their next probe.
+	 */
+	private void wakeTree(BlockPos pos, IBlockState oldState, IBlockState newState) {
+		TreeDormancy dormancy = TreeDormancy.get(world);
+		if (dormancy.isEmpty()) {
+			return;
+		}
+		if (oldState.getBlock() instanceof BlockRooty && oldState.getBlock() != newState.getBlock()) {
+			dormancy.wake(pos);//The tree is gone
+		} else if (ModConfigs.treeRootIndex && (TreeHelper.isBranch(oldState) || TreeHelper.isBranch(newState))) {
+			BlockPos rootPos = TreeRootIndex.get(world).getRoot(pos);
+			if (rootPos != null) {
+				dormancy.wake(rootPos);
+			}
+		}
 	}
 
 	@Override
 	public void notifyLightSet(BlockPos pos) {
+		if (!world.isRemote && ModConfigs.columnLightCache) {//Don't make a cache just to clear it
+			ColumnLightCache.get(world).blockChanged(pos);
+		}
 	}
 
 	@Override
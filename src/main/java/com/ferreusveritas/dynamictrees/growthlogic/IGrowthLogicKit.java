@@ -10,6 +10,14 @@ public interface IGrowthLogicKit {
 
 	int[] directionManipulation(World world, BlockPos pos, Species species, int radius, GrowSignal signal, int[] probMap);
 
+	/**
+	 * @return true if {@link #directionManipulation} sets all six directions before reading any of them.  The
+	 * neighbors of the branch are then not probed for their weights since they would be thrown away.
+	 */
+	default boolean replacesProbabilities() {
+		return false;
+	}
+
 	EnumFacing newDirectionSelected(Species species, EnumFacing newDir, GrowSignal signal);
 
 	float getEnergy(World world, BlockPos pos, Species species, float signalEnergy);
@@ -43,6 +43,11 @@ public class JungleLogic implements IGrowthLogicKit {
 		return probMap;
 	}
 
+	@Override
+	public boolean replacesProbabilities() {
+		return true;
+	}
+
 	@Override
 	public EnumFacing newDirectionSelected(Species species, EnumFacing newDir, GrowSignal signal) {
 		if (signal.isInTrunk() && newDir != EnumFacing.UP) { // Turned out of trunk.
@@ -0,0 +1,335 @@
+package com.ferreusveritas.dynamictrees.systems;
+
+import com.ferreusveritas.dynamictrees.ModConfigs;
+import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.api.treedata.ITreePart;
+import com.ferreusveritas.dynamictrees.blocks.BlockBranchBasic;
+import com.ferreusveritas.dynamictrees.blocks.BlockDynamicLeaves;
+import com.ferreusveritas.dynamictrees.blocks.BlockRooty;
+import com.ferreusveritas.dynamictrees.growthlogic.ConiferLogic;
+import com.ferreusveritas.dynamictrees.growthlogic.DarkOakLogic;
+import com.ferreusveritas.dynamictrees.growthlogic.JungleLogic;
+import com.ferreusveritas.dynamictrees.growthlogic.NullLogic;
+import com.ferreusveritas.dynamictrees.trees.Species;
+import com.ferreusveritas.dynamictrees.util.BufferedBlockAccess;
+import com.ferreusveritas.dynamictrees.util.LongMap;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldType;
+import org.apache.logging.log4j.LogManager;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs growth signals on a pool of worker threads.
+ * <p>
+ * The chunks around the tree are pinned in a {@link BufferedBlockAccess} on the server thread and the growth signal is
+ * sent through it on a worker.  The block changes come back as a diff that's applied at the end of the world tick,
+ * after which the soil is drawn from as usual.  If any block the growth read has changed in the meantime the diff is
+ * thrown away and the pulse is tried again.  Pulses that keep conflicting or that fail on the worker are run on the
+ * server thread instead so no growth is lost.
+ * <p>
+ * Only trees made of stock branches and leaves with a stock growth logic kit, whose species picks directions and works
+ * out its energy and lowest branch the stock way, are grown like this since their growth is known to go through the
+ * block access.  Species that override those, like dark oak reading the biome, stay on the server thread.  One pulse
+ * per tree is in flight at a time.  Pulses for a tree that's already growing are counted and sent once the current one
+ * is applied.  The species' post grow features are run once the last pulse owed to the tree has been applied.
+ */
+public class AsyncTreeGrowth {
+
+	private static final int MAXATTEMPTS = 3;
+
+	private static final Map<World, AsyncTreeGrowth> growths = new ConcurrentHashMap<>();
+	private static final Map<Class<?>, Boolean> stockClasses = new ConcurrentHashMap<>();
+	private static ExecutorService executor;
+
+	private final Queue<Pulse> completed = new ConcurrentLinkedQueue<>();
+	private final LongMap<Pulse> inFlight = new LongMap<>();//Keyed by root position.  Server thread only
+
+	//Statistics
+	private long applied;
+	private long conflicts;
+	private long failures;
+
+	public static AsyncTreeGrowth get(World world) {
+		return growths.computeIfAbsent(world, w -> new AsyncTreeGrowth());
+	}
+
+	public static void unloadWorld(World world) {
+		growths.remove(world);
+	}
+
+	private static synchronized ExecutorService getExecutor() {
+		if (executor == null) {
+			AtomicInteger count = new AtomicInteger();
+			executor = Executors.newFixedThreadPool(ModConfigs.asyncTreeGrowthThreads, r -> {
+				Thread thread = new Thread(r, "DynamicTrees Growth " + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return executor;
+	}
+
+	/**
+	 * @return true if the tree can be grown on a worker thread
+	 */
+	public static boolean canGrow(World world, ITreePart treeBase, Species species) {
+		return ModConfigs.asyncTreeGrowth && !world.isRemote && world.getWorldType() != WorldType.DEBUG_ALL_BLOCK_STATES && canBuffer(treeBase, species);
+	}
+
+	/**
+	 * @return true if the growth of the tree goes entirely through the block access so it can be captured by a
+	 * {@link BufferedBlockAccess}
+	 */
+	public static boolean canBuffer(ITreePart treeBase, Species species) {
+		return treeBase instanceof BlockBranchBasic && isStock(treeBase.getClass()) && isStock(species.getClass()) &&
+			isStock(species.getGrowthLogicKit().getClass()) && isStock(species.getLeavesProperties().getDynamicLeavesState().getBlock().getClass());
+	}
+
+	private static boolean isStock(Class<?> clazz) {
+		return stockClasses.computeIfAbsent(clazz, c -> {
+			if (BlockBranchBasic.class.isAssignableFrom(c)) {
+				return !overrides(c, BlockBranchBasic.class, "growSignal", "growIntoAir", "setRadius");
+			}
+			if (BlockDynamicLeaves.class.isAssignableFrom(c)) {
+				return !overrides(c, BlockDynamicLeaves.class, "growLeavesIfLocationIsSuitable", "branchOut", "isLocationSuitableForNewLeaves", "getNewLeavesPropertiesHandler");
+			}
+			if (Species.class.isAssignableFrom(c)) {
+				//Everything the growth asks of the species with the world.  Overrides of these tend to read the biome
+				return !overrides(c, Species.class, "selectNewDirection", "customDirectionManipulation", "newDirectionSelected", "getLowestBranchHeight", "getEnergy", "biomeSuitability");
+			}
+			return c == NullLogic.class || c == ConiferLogic.class || c == DarkOakLogic.class || c == JungleLogic.class;//The growth logic kits that come with the mod
+		});
+	}
+
+	/**
+	 * @return true if a class or one of its superclasses below the base class declares a method with one of the names
+	 * that takes the world first.  Overloads without the world can't reach it
+	 */
+	private static boolean overrides(Class<?> clazz, Class<?> base, String... names) {
+		for (Class<?> c = clazz; c != base; c = c.getSuperclass()) {
+			for (Method method : c.getDeclaredMethods()) {
+				for (String name : names) {
+					if (method.getName().equals(name) && method.getParameterCount() > 0 && method.getParameterTypes()[0] == World.class) {
+						return true;
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Run the post grow features of the species once the pulses sent for the tree have been applied instead of right
+	 * away.  Must be called on the server thread right after {@link #submit}.
+	 */
+	public void postGrowAfter(BlockPos rootPos, boolean natural) {
+		Pulse pulse = inFlight.get(rootPos.toLong());
+		if (pulse != null) {
+			pulse.postGrows++;
+			pulse.natural |= natural;
+		}
+	}
+
+	/**
+	 * Send a growth pulse through a tree on a worker thread.  Must be called on the server thread.
+	 */
+	public void submit(World world, Species species, BlockPos rootPos, BlockPos treePos, float energy) {
+		Pulse pulse = inFlight.get(rootPos.toLong());
+		if (pulse != null) {
+			pulse.owed++;
+			return;
+		}
+		pulse = new Pulse(this, world, species, rootPos, treePos, energy);
+		inFlight.put(rootPos.toLong(), pulse);
+		pulse.send();
+	}
+
+	/**
+	 * Apply the growth that came back from the workers.  Must be called on the server thread.
+	 */
+	public void applyCompleted(World world) {
+		Pulse pulse;
+		while ((pulse = completed.poll()) != null) {
+			if (pulse.world != world) {
+				continue;
+			}
+
+			if (pulse.failed) {
+				failures++;
+				pulse.growNow();
+			} else if (!pulse.buffer.isUnchanged()) {
+				conflicts++;
+				if (pulse.attempts < MAXATTEMPTS) {
+					pulse.send();//Try again with fresh data
+					continue;
+				}
+				pulse.growNow();
+			} else {
+				applied++;
+				pulse.apply();
+			}
+
+			if (pulse.owed > 0) {
+				pulse.owed--;
+				pulse.attempts = 0;
+				pulse.send();
+			} else {
+				inFlight.remove(pulse.rootPos.toLong());
+				pulse.postGrow();
+			}
+		}
+	}
+
+	public int getInFlight() {
+		return inFlight.size();
+	}
+
+	public long getApplied() {
+		return applied;
+	}
+
+	public long getConflicts() {
+		return conflicts;
+	}
+
+	public long getFailures() {
+		return failures;
+	}
+
+	public void resetCounters() {
+		applied = conflicts = failures = 0;
+	}
+
+	private static class Pulse implements Runnable {
+
+		private final AsyncTreeGrowth growth;
+		private final World world;
+		private final Species species;
+		private final BlockPos rootPos;
+		private final BlockPos treePos;
+		private final float energy;
+		private int attempts;
+		private int owed;
+		private int postGrows;//Post grow features owed once the last pulse is applied
+		private boolean natural;
+
+		//Written by the worker.  Handed over through the completed queue
+		private BufferedBlockAccess buffer;
+		private boolean failed;
+		private boolean success;
+		private boolean choked;
+
+		Pulse(AsyncTreeGrowth growth, World world, Species species, BlockPos rootPos, BlockPos treePos, float energy) {
+			this.growth = growth;
+			this.world = world;
+			this.species = species;
+			this.rootPos = rootPos;
+			this.treePos = treePos;
+			this.energy = energy;
+		}
+
+		/**
+		 * Pin the neighborhood and hand the pulse to a worker.  Server thread only.
+		 */
+		void send() {
+			attempts++;
+			failed = false;
+			buffer = new BufferedBlockAccess(world, treePos, (int) Math.ceil(energy) + 2);//A signal can't travel further than its energy
+			getExecutor().execute(this);
+		}
+
+		@Override
+		public void run() {
+			try (BufferedBlockAccess access = buffer.open()) {
+				GrowthContext context = GrowthContext.get();
+				GrowSignal signal = context.obtainSignal(species, rootPos, energy);
+				try {
+					IBlockState treeState = access.getBlockState(treePos);
+					TreeHelper.getTreePart(treeState).growSignal(world, treePos, signal);
+					success = signal.success;
+					choked = signal.choked;
+				} finally {
+					context.releaseSignal(signal);
+				}
+			} catch (RuntimeException e) {
+				LogManager.getLogger().debug("Growth of tree at {} failed off thread", rootPos, e);
+				failed = true;
+			}
+			growth.completed.add(this);
+		}
+
+		/**
+		 * Apply the diff and draw from the soil.  Server thread only.
+		 */
+		void apply() {
+			IBlockState rootyState = world.getBlockState(rootPos);
+			BlockRooty rooty = TreeHelper.getRooty(rootyState);
+			if (rooty == null) {
+				return;
+			}
+
+			buffer.apply();
+
+			if (ModConfigs.treeRootIndex) {
+				TreeRootIndex rootIndex = TreeRootIndex.get(world);
+				buffer.forEachWrite((pos, state) -> {
+					if (TreeHelper.isBranch(state)) {
+						rootIndex.setRoot(pos, rootPos);
+					}
+				});
+			}
+
+			species.drawFromSoil(world, rooty, rootPos, rooty.getSoilLife(rootyState, world, rootPos), success, choked, world.rand);
+		}
+
+		/**
+		 * Run the post grow features owed to the tree.  Server thread only.
+		 */
+		void postGrow() {
+			for (; postGrows > 0; postGrows--) {
+				IBlockState rootyState = world.getBlockState(rootPos);
+				BlockRooty rooty = TreeHelper.getRooty(rootyState);
+				if (rooty == null) {
+					return;
+				}
+				if (!species.postGrow(world, rootPos, treePos, rooty.getSoilLife(rootyState, world, rootPos), natural)) {
+					world.setBlockState(rootPos, rooty.getDecayBlockState(world, rootPos), 3);//Same as when the update finds the tree isn't viable
+					return;
+				}
+			}
+		}
+
+		/**
+		 * Give up on the worker and grow the tree right here.  Server thread only.
+		 */
+		void growNow() {
+			IBlockState rootyState = world.getBlockState(rootPos);
+			BlockRooty rooty = TreeHelper.getRooty(rootyState);
+			ITreePart treeBase = TreeHelper.getTreePart(world.getBlockState(treePos));
+			if (rooty == null || treeBase == TreeHelper.nullTreePart) {
+				return;
+			}
+
+			GrowthContext context = GrowthContext.get();
+			GrowSignal signal = context.obtainSignal(species, rootPos, energy);
+			try {
+				treeBase.growSignal(world, treePos, signal);
+				species.drawFromSoil(world, rooty, rootPos, rooty.getSoilLife(rootyState, world, rootPos), signal.success, signal.choked, world.rand);
+			} finally {
+				context.releaseSignal(signal);
+			}
+		}
+
+	}
+
+}
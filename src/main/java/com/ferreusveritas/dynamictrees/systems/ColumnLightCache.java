@@ -0,0 +1,167 @@
+package com.ferreusveritas.dynamictrees.systems;
+
+import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.util.LongMap;
+import com.ferreusveritas.dynamictrees.util.SectionBlockAccess;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.BlockPos.MutableBlockPos;
+import net.minecraft.world.IBlockAccess;
+import net.minecraft.world.World;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per world cache of the block columns that leaves check their light in.  Lives for one world tick.
+ * <p>
+ * Every leaf of a canopy that's aged asks if it can see the sky and then counts the tree parts above it to see if
+ * it's smothered.  The leaves of a canopy share their columns so the same blocks were read over and over.  A column
+ * holds the height map top and a bit per block that's a tree part, filled in as it's asked for, so both questions are
+ * answered without walking the column again.
+ * <p>
+ * A column is dropped when a block in it changes or its light is set, as seen by the
+ * {@link com.ferreusveritas.dynamictrees.event.WorldListener}, and everything is dropped when the world time moves on.
+ * Block changes that don't notify listeners(flag 2 unset) can go unnoticed until then.  A
+ * {@link com.ferreusveritas.dynamictrees.util.BlockWriteBatch} drops the columns of the changes it holds back since the
+ * tree parts are read through it.  Only used on the server thread outside of a buffered growth since the cache follows
+ * the world and not the buffer, and only in populated chunks since the world doesn't tell listeners about changes in
+ * chunks that are still being generated.
+ */
+public class ColumnLightCache {
+
+	private static final Map<World, ColumnLightCache> caches = new ConcurrentHashMap<>();
+
+	private final LongMap<Column> columns = new LongMap<>(256);//Keyed by packed x and z
+	private long time = -1;
+
+	//Statistics
+	private long hits;
+	private long misses;
+
+	public static ColumnLightCache get(World world) {
+		return caches.computeIfAbsent(world, w -> new ColumnLightCache());
+	}
+
+	public static void unloadWorld(World world) {
+		caches.remove(world);
+	}
+
+	/**
+	 * @return true if the column cache can be used for a position in the world on this thread right now
+	 */
+	public static boolean isUsable(World world, BlockPos pos) {
+		return !world.isRemote && !SectionBlockAccess.isBuffered(world) && world.getChunkFromBlockCoords(pos).isPopulated();//Worldgen changes go unseen
+	}
+
+	/**
+	 * Same as {@link SectionBlockAccess#canBlockSeeSky(World, BlockPos)}
+	 */
+	public boolean canBlockSeeSky(World world, BlockPos pos) {
+		if (pos.getY() < world.getSeaLevel()) {
+			return SectionBlockAccess.canBlockSeeSky(world, pos);//Light may come through water.  Rare enough for leaves
+		}
+		return pos.getY() >= getColumn(world, pos).height;
+	}
+
+	/**
+	 * Count the tree parts in the blocks above a position.
+	 *
+	 * @param world The world
+	 * @param pos   The position.  Not counted
+	 * @param range How many blocks above the position to count
+	 * @return The number of tree parts
+	 */
+	public int countTreePartsAbove(World world, BlockPos pos, int range) {
+		int from = Math.max(pos.getY() + 1, 0);
+		int to = Math.min(pos.getY() + range, 255);
+		if (from > to) {
+			return 0;
+		}
+		return getColumn(world, pos).countTreeParts(world, pos, from, to);
+	}
+
+	/**
+	 * Drop the column of a block that changed.
+	 */
+	public void blockChanged(BlockPos pos) {
+		if (!columns.isEmpty()) {
+			columns.remove(columnKey(pos.getX(), pos.getZ()));
+		}
+	}
+
+	private Column getColumn(World world, BlockPos pos) {
+		long now = world.getTotalWorldTime();
+		if (now != time) {
+			columns.clear();
+			time = now;
+		}
+
+		long key = columnKey(pos.getX(), pos.getZ());
+		Column column = columns.get(key);
+		if (column != null) {
+			hits++;
+			return column;
+		}
+
+		misses++;
+		column = new Column(world.getHeight(pos.getX(), pos.getZ()));
+		columns.put(key, column);
+		return column;
+	}
+
+	private static long columnKey(int x, int z) {
+		return (long) x & 0xFFFFFFFFL | ((long) z & 0xFFFFFFFFL) << 32;
+	}
+
+	public long getHits() {
+		return hits;
+	}
+
+	public long getMisses() {
+		return misses;
+	}
+
+	public void resetCounters() {
+		hits = misses = 0;
+	}
+
+	private static class Column {
+
+		private final int height;//The height map top
+		private final long[] treeParts = new long[4];//A bit per y
+		private final long[] known = new long[4];//Bits of treeParts that have been read
+
+		Column(int height) {
+			this.height = height;
+		}
+
+		int countTreeParts(World world, BlockPos pos, int from, int to) {
+			IBlockAccess access = SectionBlockAccess.of(world);
+			MutableBlockPos readPos = new MutableBlockPos(pos);
+			int count = 0;
+			for (int word = from >> 6; word <= to >> 6; word++) {
+				long mask = rangeMask(word, from, to);
+				long unknown = mask & ~known[word];
+				while (unknown != 0) {//Read the blocks that haven't been yet
+					int bit = Long.numberOfTrailingZeros(unknown);
+					unknown &= unknown - 1;
+					readPos.setY((word << 6) | bit);
+					if (TreeHelper.isTreePart(access, readPos)) {
+						treeParts[word] |= 1L << bit;
+					}
+				}
+				known[word] |= mask;
+				count += Long.bitCount(treeParts[word] & mask);
+			}
+			return count;
+		}
+
+		private static long rangeMask(int word, int from, int to) {
+			int low = Math.max(from - (word << 6), 0);
+			int high = Math.min(to - (word << 6), 63);
+			return (-1L >>> (63 - high)) & (-1L << low);
+		}
+
+	}
+
+}
@@ -3,6 +3,7 @@ package com.ferreusveritas.dynamictrees.systems;
 import com.ferreusveritas.dynamictrees.trees.Species;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.BlockPos.MutableBlockPos;
 
 import java.util.Random;
 
@@ -13,10 +14,11 @@ public class GrowSignal {
 	public EnumFacing dir;
 	public int numTurns;
 	public int numSteps;
-	private final Species species;
+	private Species species;
 
 	public BlockPos rootPos;
-	public BlockPos delta;
+	public BlockPos delta;//Moved in place as the signal steps.  Copy it to keep it
+	private final MutableBlockPos deltaPos = new MutableBlockPos();
 
 	//Back data
 	public float radius;
@@ -29,6 +31,20 @@ public class GrowSignal {
 	public Random rand;
 
 	public GrowSignal(Species species, BlockPos rootPos, float energy) {
+		this(new Random());
+		reset(species, rootPos, energy);
+	}
+
+	GrowSignal(Random rand) {
+		this.rand = rand;
+	}
+
+	/**
+	 * Ready the signal for a new growth pulse.
+	 *
+	 * @return this signal for chaining
+	 */
+	public GrowSignal reset(Species species, BlockPos rootPos, float energy) {
 		this.species = species;
 		this.energy = energy;
 		dir = EnumFacing.UP;
@@ -36,12 +52,12 @@ public class GrowSignal {
 		numTurns = 0;
 		numSteps = 0;
 		tapering = 0.3f;
-		rand = new Random();
 		success = true;
 		choked = false;
 
 		this.rootPos = rootPos;
-		delta = new BlockPos(0, 0, 0);
+		delta = deltaPos.setPos(0, 0, 0);
+		return this;
 	}
 
 	public Species getSpecies() {
@@ -51,7 +67,7 @@ public class GrowSignal {
 	public boolean step() {
 		numSteps++;
 
-		delta = delta.offset(dir);
+		delta = deltaPos.move(dir);
 
 		if (--energy <= 0.0f) {
 			success = false;//Ran out of energy before it could grow
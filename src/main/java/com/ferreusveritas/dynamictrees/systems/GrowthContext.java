@@ -0,0 +1,61 @@
+package com.ferreusveritas.dynamictrees.systems;
+
+import com.ferreusveritas.dynamictrees.trees.Species;
+import com.ferreusveritas.dynamictrees.util.RandomXorShift;
+import net.minecraft.util.math.BlockPos;
+
+import java.util.Arrays;
+
+/**
+ * Per thread scratch state for growth pulses.  Holds a {@link GrowSignal} that is reset for every pulse, the random
+ * number generator it uses and the probability map used to select directions so that a pulse doesn't allocate.
+ * <p>
+ * A pulse that starts while another is still running on the same thread(growth triggered from inside growth) gets a
+ * signal of its own.
+ */
+public class GrowthContext {
+
+	private static final ThreadLocal<GrowthContext> contexts = ThreadLocal.withInitial(GrowthContext::new);
+
+	private final RandomXorShift rand = new RandomXorShift();
+	private final GrowSignal signal = new GrowSignal(rand);
+	private final int[] probMap = new int[6];
+	private boolean signalInUse;
+
+	public static GrowthContext get() {
+		return contexts.get();
+	}
+
+	/**
+	 * Get a signal for a growth pulse.  Must be handed back with {@link #releaseSignal} once the pulse is done.
+	 */
+	public GrowSignal obtainSignal(Species species, BlockPos rootPos, float energy) {
+		if (signalInUse) {
+			return new GrowSignal(new RandomXorShift(rand.nextLong())).reset(species, rootPos, energy);
+		}
+		signalInUse = true;
+		return signal.reset(species, rootPos, energy);
+	}
+
+	public void releaseSignal(GrowSignal signal) {
+		if (signal == this.signal) {
+			signalInUse = false;
+		}
+	}
+
+	/**
+	 * @return The probability map for direction selection cleared to zero.  Only valid until the next call
+	 */
+	public int[] getProbMap() {
+		Arrays.fill(probMap, 0);
+		return probMap;
+	}
+
+	/**
+	 * Seed the generator used by growth pulses on this thread.  For repeatable growth when testing.
+	 */
+	public void setSeed(long seed) {
+		rand.setSeed(seed);
+	}
+
+}
@@ -0,0 +1,139 @@
+package com.ferreusveritas.dynamictrees.systems;
+
+import com.ferreusveritas.dynamictrees.ModConfigs;
+import com.ferreusveritas.dynamictrees.blocks.BlockDynamicLeaves;
+import com.ferreusveritas.dynamictrees.util.BlockWriteBatch;
+import com.ferreusveritas.dynamictrees.util.LongQueue;
+import com.ferreusveritas.dynamictrees.util.LongSet;
+import com.ferreusveritas.dynamictrees.util.SectionBlockAccess;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per world queue of leaves waiting to age that's worked through within a time budget at the end of every server tick.
+ * <p>
+ * With the leafAgingQueue config option enabled leaf ticks that would have aged leaves right away queue the position
+ * here instead.  A position is only queued once no matter how many times it's ticked before it's aged.  Aging the
+ * same leaves twice in a row mostly repeats the same work since the hydration is solved from the neighbors.  Leaves
+ * that aren't there anymore by the time their turn comes are skipped.
+ */
+public class LeafAgingQueue {
+
+	private static final Map<World, LeafAgingQueue> queues = new ConcurrentHashMap<>();
+
+	private final LongQueue queue = new LongQueue(1024);
+	private final LongSet queued = new LongSet(1024);
+
+	//Statistics
+	private long lastTickNanos;
+	private int lastTickAged;
+	private double averageTickNanos;
+	private long totalAged;
+	private long merged;
+
+	public static LeafAgingQueue get(World world) {
+		return queues.computeIfAbsent(world, w -> new LeafAgingQueue());
+	}
+
+	public static void unloadWorld(World world) {
+		queues.remove(world);
+	}
+
+	/**
+	 * Queue leaves to be aged unless they already are.
+	 */
+	public void offer(BlockPos pos) {
+		long key = pos.toLong();
+		if (queued.add(key)) {
+			queue.offer(key);
+		} else {
+			merged++;
+		}
+	}
+
+	/**
+	 * Age queued leaves until the budget for this tick is spent.  At least one is aged every tick.
+	 */
+	public void tick(World world) {
+		long budget = (long) (ModConfigs.leafAgingBudget * 1000000);
+		long start = System.nanoTime();
+		long elapsed = 0;
+		int aged = 0;
+
+		try (SectionBlockAccess access = BlockWriteBatch.open(world)) {//The aged leaves are set together
+			while (!queue.isEmpty() && (aged == 0 || elapsed < budget)) {
+				long key = queue.poll();
+				queued.remove(key);
+
+				BlockPos pos = BlockPos.fromLong(key);
+				if (world.isBlockLoaded(pos)) {
+					IBlockState state = access.getBlockState(pos);
+					if (state.getBlock() instanceof BlockDynamicLeaves) {
+						((BlockDynamicLeaves) state.getBlock()).tickNow(world, pos, state, world.rand);
+						aged++;
+					}
+				}
+
+				elapsed = System.nanoTime() - start;
+			}
+		}
+
+		lastTickNanos = elapsed;
+		lastTickAged = aged;
+		averageTickNanos += (elapsed - averageTickNanos) * 0.05;//Roughly the last 20 ticks
+		totalAged += aged;
+	}
+
+	/**
+	 * Forget the leaves queued in a chunk.
+	 */
+	public void unloadChunk(int chunkX, int chunkZ) {
+		queue.removeIf(key -> {
+			BlockPos pos = BlockPos.fromLong(key);
+			if (pos.getX() >> 4 == chunkX && pos.getZ() >> 4 == chunkZ) {
+				queued.remove(key);
+				return true;
+			}
+			return false;
+		});
+	}
+
+	/**
+	 * @return The number of leaves waiting to age
+	 */
+	public int getBacklog() {
+		return queue.size();
+	}
+
+	public float getLastTickMillis() {
+		return lastTickNanos / 1000000f;
+	}
+
+	public int getLastTickAged() {
+		return lastTickAged;
+	}
+
+	public float getAverageTickMillis() {
+		return (float) (averageTickNanos / 1000000);
+	}
+
+	public long getTotalAged() {
+		return totalAged;
+	}
+
+	/**
+	 * @return The number of ticks for leaves that were already queued
+	 */
+	public long getMerged() {
+		return merged;
+	}
+
+	public void resetCounters() {
+		totalAged = merged = 0;
+	}
+
+}
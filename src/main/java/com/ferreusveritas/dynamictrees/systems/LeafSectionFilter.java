@@ -0,0 +1,140 @@
+package com.ferreusveritas.dynamictrees.systems;
+
+import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.util.LongSet;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per world record of which chunk sections may hold dynamic leaves so that neighbor notifications far from any leaves
+ * can be let through without reading the neighbors.
+ * <p>
+ * A section is scanned the first time a notification lands next to it and remembered until its chunk unloads.  Leaves
+ * added to a section that was found empty mark it from {@link com.ferreusveritas.dynamictrees.blocks.BlockDynamicLeaves#onBlockAdded}
+ * which is called for every leaves block set in the world whatever the flags.  Sections aren't unmarked when their
+ * leaves go away so a marked section only means the neighbors have to be read.  Server side only.
+ */
+public class LeafSectionFilter {
+
+	private static final Map<World, LeafSectionFilter> filters = new ConcurrentHashMap<>();
+
+	private final LongSet scanned = new LongSet(256);
+	private final LongSet leafy = new LongSet(256);
+
+	//Statistics
+	private long filtered;
+	private long processed;
+
+	public static LeafSectionFilter get(World world) {
+		return filters.computeIfAbsent(world, w -> new LeafSectionFilter());
+	}
+
+	public static void unloadWorld(World world) {
+		filters.remove(world);
+	}
+
+	/**
+	 * Mark the section of leaves that were just set.  Does nothing for worlds that aren't filtered.
+	 */
+	public static void leavesAdded(World world, BlockPos pos) {
+		LeafSectionFilter filter = filters.get(world);
+		if (filter != null && pos.getY() >= 0 && pos.getY() < 256) {
+			filter.leafy.add(sectionKey(pos.getX() >> 4, pos.getY() >> 4, pos.getZ() >> 4));
+		}
+	}
+
+	/**
+	 * Check if any block next to a position could be dynamic leaves.  Counts the outcome.
+	 *
+	 * @return false if none of the six neighbors can be leaves
+	 */
+	public boolean mayNeighborLeaves(World world, BlockPos pos) {
+		int sx = pos.getX() >> 4;
+		int sy = pos.getY() >> 4;
+		int sz = pos.getZ() >> 4;
+		int lx = pos.getX() & 15;
+		int ly = pos.getY() & 15;
+		int lz = pos.getZ() & 15;
+
+		boolean leaves = hasLeaves(world, sx, sy, sz) ||
+			(lx == 0 && hasLeaves(world, sx - 1, sy, sz)) || (lx == 15 && hasLeaves(world, sx + 1, sy, sz)) ||
+			(ly == 0 && hasLeaves(world, sx, sy - 1, sz)) || (ly == 15 && hasLeaves(world, sx, sy + 1, sz)) ||
+			(lz == 0 && hasLeaves(world, sx, sy, sz - 1)) || (lz == 15 && hasLeaves(world, sx, sy, sz + 1));
+
+		if (leaves) {
+			processed++;
+		} else {
+			filtered++;
+		}
+		return leaves;
+	}
+
+	private boolean hasLeaves(World world, int sx, int sy, int sz) {
+		if (sy < 0 || sy > 15) {
+			return false;
+		}
+
+		long key = sectionKey(sx, sy, sz);
+		if (scanned.contains(key)) {
+			return leafy.contains(key);
+		}
+
+		Chunk chunk = world.getChunkProvider().getLoadedChunk(sx, sz);
+		if (chunk == null) {
+			return true;//Not loaded yet so we can't tell
+		}
+
+		scanned.add(key);
+		ExtendedBlockStorage section = chunk.getBlockStorageArray()[sy];
+		if (section != null && !section.isEmpty() && scan(section)) {
+			leafy.add(key);
+		}
+		return leafy.contains(key);
+	}
+
+	private static boolean scan(ExtendedBlockStorage section) {
+		for (int y = 0; y < 16; y++) {
+			for (int z = 0; z < 16; z++) {
+				for (int x = 0; x < 16; x++) {
+					if (TreeHelper.isLeaves(section.get(x, y, z))) {
+						return true;
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Forget the sections of a chunk.
+	 */
+	public void unloadChunk(int chunkX, int chunkZ) {
+		for (int sy = 0; sy < 16; sy++) {
+			long key = sectionKey(chunkX, sy, chunkZ);
+			scanned.remove(key);
+			leafy.remove(key);
+		}
+	}
+
+	private static long sectionKey(int sx, int sy, int sz) {
+		return ((long) sx & 0x3FFFFFFL) << 30 | ((long) sz & 0x3FFFFFFL) << 4 | sy;
+	}
+
+	public long getFiltered() {
+		return filtered;
+	}
+
+	public long getProcessed() {
+		return processed;
+	}
+
+	public void resetCounters() {
+		filtered = processed = 0;
+	}
+
+}
@@ -0,0 +1,237 @@
+package com.ferreusveritas.dynamictrees.systems;
+
+import com.ferreusveritas.dynamictrees.ModConfigs;
+import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.blocks.BlockRooty;
+import com.ferreusveritas.dynamictrees.util.CoordUtils;
+import com.ferreusveritas.dynamictrees.util.LongMap;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per world bookkeeping of trees that don't need regular updates.
+ * <p>
+ * Dormancy: A tree whose growth signals keep running out of energy before they can grow anything has reached its full
+ * size.  After enough failed signals in a row the growth signals of its natural updates are skipped except for one
+ * probe every so often.  Rot, drops and post growth features like fruit still run on every update.  A probe that grows
+ * something, a change to one of its branches or the tree decaying wakes the tree up.  Dormancy isn't saved so trees
+ * wake up with the world.
+ * <p>
+ * Catch up: The world time is saved with the chunk data.  When a chunk is loaded again the trees in it are given the
+ * updates they would have had from random ticks while the chunk was unloaded, up to the catchUpGrowth config option.
+ * The updates are fast forwarded with {@link TreeHelper#growPulses} at the end of a world tick once the chunks around
+ * are loaded as well.
+ */
+public class TreeDormancy {
+
+	private static final Map<World, TreeDormancy> dormancies = new ConcurrentHashMap<>();
+
+	private static final int FAILURESTODORMANT = 16;//Failed growth signals in a row before a tree goes dormant
+	private static final int PROBEINTERVAL = 16;//Updates skipped between probes of a dormant tree
+	private static final int CHUNKSPERTICK = 2;//Chunks caught up per world tick
+
+	private final LongMap<int[]> trees = new LongMap<>(256);//Failed signals in a row and skipped updates keyed by root position
+	private final LongMap<long[]> catchUps = new LongMap<>(16);//Unloaded ticks keyed by chunk position
+
+	//Statistics
+	private long skipped;
+	private long caughtUp;
+
+	public static TreeDormancy get(World world) {
+		return dormancies.computeIfAbsent(world, w -> new TreeDormancy());
+	}
+
+	public static void unloadWorld(World world) {
+		dormancies.remove(world);
+	}
+
+
+	///////////////////////////////////////////
+	// DORMANCY
+	///////////////////////////////////////////
+
+	/**
+	 * Check if the growth signals of a natural update of a tree should be skipped.  Counts the update as skipped if they
+	 * should.
+	 *
+	 * @param rootPos The position of the rooty block
+	 * @return true if the tree is dormant and this update isn't a probe
+	 */
+	public boolean skipUpdate(BlockPos rootPos) {
+		int[] tree = trees.get(rootPos.toLong());
+		if (tree == null || tree[0] < FAILURESTODORMANT) {
+			return false;
+		}
+		if (++tree[1] > PROBEINTERVAL) {
+			tree[1] = 0;
+			return false;//Probe
+		}
+		skipped++;
+		return true;
+	}
+
+	/**
+	 * Record the outcome of a growth signal.
+	 *
+	 * @param rootPos The position of the rooty block
+	 * @param success true if the signal grew the tree
+	 */
+	public void recordGrowth(BlockPos rootPos, boolean success) {
+		long key = rootPos.toLong();
+		if (success) {
+			trees.remove(key);
+			return;
+		}
+		int[] tree = trees.get(key);
+		if (tree == null) {
+			trees.put(key, new int[]{1, 0});
+		} else if (tree[0] < FAILURESTODORMANT) {
+			tree[0]++;
+		}
+	}
+
+	/**
+	 * Wake up a tree so its next update is a regular one.
+	 */
+	public void wake(BlockPos rootPos) {
+		trees.remove(rootPos.toLong());
+	}
+
+	public boolean isEmpty() {
+		return trees.isEmpty();
+	}
+
+	/**
+	 * @return The number of trees that are dormant
+	 */
+	public int getNumDormant() {
+		int[] dormant = new int[1];
+		trees.forEachValue(tree -> {
+			if (tree[0] >= FAILURESTODORMANT) {
+				dormant[0]++;
+			}
+		});
+		return dormant[0];
+	}
+
+
+	///////////////////////////////////////////
+	// CATCH UP
+	///////////////////////////////////////////
+
+	/**
+	 * Queue the trees of a chunk that was just loaded to catch up on the time it was unloaded.
+	 *
+	 * @param savedTime The world time the chunk was saved at or 0 if it wasn't saved with one
+	 */
+	public void loadChunk(World world, int chunkX, int chunkZ, long savedTime) {
+		long unloaded = world.getTotalWorldTime() - savedTime;
+		if (savedTime > 0 && unloaded > 0 && ModConfigs.catchUpGrowth > 0) {
+			catchUps.put(ChunkPos.asLong(chunkX, chunkZ), new long[]{unloaded});
+		}
+	}
+
+	/**
+	 * Catch up a few of the chunks that are waiting for the chunks around them to load.
+	 */
+	public void tick(World world) {
+		if (catchUps.isEmpty()) {
+			return;
+		}
+
+		List<Chunk> ready = new ArrayList<>(CHUNKSPERTICK);
+		List<long[]> unloaded = new ArrayList<>(CHUNKSPERTICK);
+		catchUps.forEach((ticks, key) -> {
+			if (ready.size() < CHUNKSPERTICK) {
+				Chunk chunk = world.getChunkProvider().getLoadedChunk((int) key, (int) (key >> 32));
+				if (chunk != null && CoordUtils.isSurroundedByLoadedChunks(world, new BlockPos(chunk.x << 4, 0, chunk.z << 4))) {
+					ready.add(chunk);
+					unloaded.add(ticks);
+				}
+			}
+		});
+
+		for (int i = 0; i < ready.size(); i++) {
+			Chunk chunk = ready.get(i);
+			catchUps.remove(ChunkPos.asLong(chunk.x, chunk.z));
+			catchUp(world, chunk, unloaded.get(i)[0]);
+		}
+	}
+
+	private void catchUp(World world, Chunk chunk, long unloadedTicks) {
+		//A block gets randomTickSpeed random ticks per section of 4096 blocks per tick and one in treeGrowthFolding of those updates the tree
+		double updates = unloadedTicks * world.getGameRules().getInt("randomTickSpeed") / 4096.0 / ModConfigs.treeGrowthFolding;
+
+		for (BlockPos rootPos : findRoots(chunk)) {
+			int pulses = (int) Math.min(ModConfigs.catchUpGrowth, updates + world.rand.nextDouble());
+			if (pulses > 0) {
+				TreeHelper.growPulses(world, rootPos, pulses);
+				caughtUp++;
+			}
+		}
+	}
+
+	private static List<BlockPos> findRoots(Chunk chunk) {
+		List<BlockPos> roots = new ArrayList<>();
+		for (ExtendedBlockStorage section : chunk.getBlockStorageArray()) {
+			if (section == null || section.isEmpty()) {
+				continue;
+			}
+			for (int y = 0; y < 16; y++) {
+				for (int z = 0; z < 16; z++) {
+					for (int x = 0; x < 16; x++) {
+						IBlockState state = section.get(x, y, z);
+						if (state.getBlock() instanceof BlockRooty) {
+							roots.add(new BlockPos((chunk.x << 4) + x, section.getYLocation() + y, (chunk.z << 4) + z));
+						}
+					}
+				}
+			}
+		}
+		return roots;
+	}
+
+	/**
+	 * Forget everything about the trees in a chunk.
+	 */
+	public void unloadChunk(int chunkX, int chunkZ) {
+		catchUps.remove(ChunkPos.asLong(chunkX, chunkZ));
+		if (trees.isEmpty()) {
+			return;
+		}
+		List<Long> unloaded = new ArrayList<>();
+		trees.forEach((tree, key) -> {
+			BlockPos rootPos = BlockPos.fromLong(key);
+			if (rootPos.getX() >> 4 == chunkX && rootPos.getZ() >> 4 == chunkZ) {
+				unloaded.add(key);
+			}
+		});
+		unloaded.forEach(trees::remove);
+	}
+
+	public int getCatchUpsWaiting() {
+		return catchUps.size();
+	}
+
+	public long getSkipped() {
+		return skipped;
+	}
+
+	public long getCaughtUp() {
+		return caughtUp;
+	}
+
+	public void resetCounters() {
+		skipped = caughtUp = 0;
+	}
+
+}
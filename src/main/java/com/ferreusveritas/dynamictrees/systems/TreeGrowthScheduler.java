@@ -0,0 +1,165 @@
+package com.ferreusveritas.dynamictrees.systems;
+
+import com.ferreusveritas.dynamictrees.ModConfigs;
+import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.blocks.BlockRooty;
+import com.ferreusveritas.dynamictrees.util.LongMap;
+import com.ferreusveritas.dynamictrees.util.LongQueue;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per world queue of tree updates that are run within a time budget at the end of every server tick.
+ * <p>
+ * Rooty blocks still receive random ticks as usual but with the treeGrowthScheduler config option enabled a random
+ * tick that would have updated the tree queues the update here instead.  Every queued update is eventually run so the
+ * average growth rate is the same as with random ticks.  Only the worst case tick time changes.
+ * <p>
+ * The queue is round robin.  A tree that was ticked again before its update ran keeps the extra updates as credits and
+ * goes to the back of the queue after each one.  Time spent over the budget in one tick is taken out of the budget of
+ * the following ticks.
+ */
+public class TreeGrowthScheduler {
+
+	private static final Map<World, TreeGrowthScheduler> schedulers = new ConcurrentHashMap<>();
+
+	private final LongQueue queue = new LongQueue(256);//Packed rooty block positions
+	private final LongMap<int[]> credits = new LongMap<>(256);//Updates owed to each queued position
+
+	private long debtNanos;
+
+	//Statistics
+	private long lastTickNanos;
+	private int lastTickUpdates;
+	private double averageTickNanos;
+	private long totalUpdates;
+
+	public static TreeGrowthScheduler get(World world) {
+		return schedulers.computeIfAbsent(world, w -> new TreeGrowthScheduler());
+	}
+
+	public static void unloadWorld(World world) {
+		schedulers.remove(world);
+	}
+
+	/**
+	 * Owe the tree rooted at the position one update.
+	 *
+	 * @param rootPos The position of the rooty block
+	 */
+	public void schedule(BlockPos rootPos) {
+		long key = rootPos.toLong();
+		int[] owed = credits.get(key);
+		if (owed != null) {
+			owed[0]++;
+			return;
+		}
+		credits.put(key, new int[]{1});
+		queue.offer(key);
+	}
+
+	/**
+	 * Run queued updates until the budget for this tick is spent.  At least one update is run whenever the tick isn't
+	 * paying off debt so the queue can't stall on a single expensive tree.
+	 */
+	public void tick(World world) {
+		long budget = (long) (ModConfigs.treeGrowthBudget * 1000000);
+		long available = budget - debtNanos;
+		if (available <= 0) {
+			debtNanos -= budget;
+			recordTick(0, 0);
+			return;
+		}
+
+		long start = System.nanoTime();
+		long elapsed = 0;
+		int updates = 0;
+
+		while (!queue.isEmpty() && (updates == 0 || elapsed < available)) {
+			long key = queue.poll();
+			int[] owed = credits.get(key);
+			if (--owed[0] > 0) {
+				queue.offer(key);//Back of the line for the next one
+			} else {
+				credits.remove(key);
+			}
+
+			BlockPos rootPos = BlockPos.fromLong(key);
+			if (world.isBlockLoaded(rootPos)) {//Trees in unloaded chunks lose their updates like they would with random ticks
+				IBlockState rootyState = world.getBlockState(rootPos);
+				BlockRooty rooty = TreeHelper.getRooty(rootyState);
+				if (rooty != null) {
+					rooty.updateTree(rootyState, world, rootPos, world.rand, true);
+					updates++;
+				}
+			}
+
+			elapsed = System.nanoTime() - start;
+		}
+
+		debtNanos = Math.max(0, elapsed - available);
+		recordTick(elapsed, updates);
+	}
+
+	private void recordTick(long nanos, int updates) {
+		lastTickNanos = nanos;
+		lastTickUpdates = updates;
+		averageTickNanos += (nanos - averageTickNanos) * 0.05;//Roughly the last 20 ticks
+		totalUpdates += updates;
+	}
+
+	/**
+	 * Forget everything queued in a chunk.
+	 */
+	public void unloadChunk(int chunkX, int chunkZ) {
+		queue.removeIf(key -> {
+			BlockPos pos = BlockPos.fromLong(key);
+			if (pos.getX() >> 4 == chunkX && pos.getZ() >> 4 == chunkZ) {
+				credits.remove(key);
+				return true;
+			}
+			return false;
+		});
+	}
+
+	/**
+	 * @return The number of trees waiting for an update
+	 */
+	public int getQueueDepth() {
+		return queue.size();
+	}
+
+	/**
+	 * @return The number of updates owed to all of the queued trees
+	 */
+	public int getPendingUpdates() {
+		int[] total = new int[1];
+		credits.forEachValue(owed -> total[0] += owed[0]);
+		return total[0];
+	}
+
+	public float getLastTickMillis() {
+		return lastTickNanos / 1000000f;
+	}
+
+	public int getLastTickUpdates() {
+		return lastTickUpdates;
+	}
+
+	public float getAverageTickMillis() {
+		return (float) (averageTickNanos / 1000000);
+	}
+
+	public long getTotalUpdates() {
+		return totalUpdates;
+	}
+
+	public void resetCounters() {
+		totalUpdates = 0;
+	}
+
+}
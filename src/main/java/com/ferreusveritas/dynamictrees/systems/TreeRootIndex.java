@@ -0,0 +1,166 @@
+package com.ferreusveritas.dynamictrees.systems;
+
+import com.ferreusveritas.dynamictrees.util.LongMap;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per world index from branch blocks to the position of the rooty block of their tree.  Lets the root of a tree be
+ * found without mapping the whole branch network.
+ * <p>
+ * Entries are grouped by the chunk the branch is in and saved with the chunk data.  They are added when a branch
+ * radius is set next to an indexed branch and whenever a whole tree has been mapped anyway.  They are removed when the
+ * branch block is broken.  Lookups are only hints.  The caller must check that the root is still there and fall back
+ * to mapping the network if it isn't.
+ * <p>
+ * Only used on the server.
+ */
+public class TreeRootIndex {
+
+	private static final Map<World, TreeRootIndex> indexes = new ConcurrentHashMap<>();
+
+	private final LongMap<LongMap<BlockPos>> chunks = new LongMap<>(256);//Branch to root maps keyed by chunk position
+
+	public static TreeRootIndex get(World world) {
+		return indexes.computeIfAbsent(world, w -> new TreeRootIndex());
+	}
+
+	public static void unloadWorld(World world) {
+		indexes.remove(world);
+	}
+
+	private static long chunkKey(long branchPos) {
+		BlockPos pos = BlockPos.fromLong(branchPos);
+		return ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4);
+	}
+
+	private static long chunkKey(BlockPos pos) {
+		return ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4);
+	}
+
+	/**
+	 * @return The last known root of the branch or null if the branch isn't indexed
+	 */
+	public BlockPos getRoot(BlockPos branchPos) {
+		LongMap<BlockPos> branches = chunks.get(chunkKey(branchPos));
+		return branches != null ? branches.get(branchPos.toLong()) : null;
+	}
+
+	public void setRoot(BlockPos branchPos, BlockPos rootPos) {
+		getOrCreate(chunkKey(branchPos)).put(branchPos.toLong(), rootPos);
+	}
+
+	/**
+	 * Index every branch of a tree that was just mapped.
+	 *
+	 * @param nodes    Packed positions of the branches
+	 * @param numNodes The number of positions in nodes to use
+	 * @param rootPos  The position of the rooty block
+	 */
+	public void setRoot(long[] nodes, int numNodes, BlockPos rootPos) {
+		long lastChunk = 0;
+		LongMap<BlockPos> branches = null;
+		for (int n = 0; n < numNodes; n++) {
+			long node = nodes[n];
+			long chunk = chunkKey(node);
+			if (branches == null || chunk != lastChunk) {//Branches of a tree are mostly in the same chunk
+				branches = getOrCreate(chunk);
+				lastChunk = chunk;
+			}
+			branches.put(node, rootPos);
+		}
+	}
+
+	public void remove(BlockPos branchPos) {
+		LongMap<BlockPos> branches = chunks.get(chunkKey(branchPos));
+		if (branches != null) {
+			branches.remove(branchPos.toLong());
+		}
+	}
+
+	private LongMap<BlockPos> getOrCreate(long chunk) {
+		LongMap<BlockPos> branches = chunks.get(chunk);
+		if (branches == null) {
+			branches = new LongMap<>(64);
+			chunks.put(chunk, branches);
+		}
+		return branches;
+	}
+
+
+	///////////////////////////////////////////
+	// CHUNK DATA
+	///////////////////////////////////////////
+
+	/**
+	 * Restore the index of a chunk from saved data.
+	 * <p>
+	 * The data is a sequence of records, one per root: root x, root y, root z, number of branches, then the packed
+	 * chunk local position of each branch.
+	 */
+	public void loadChunkData(int chunkX, int chunkZ, int[] data) {
+		long chunk = ChunkPos.asLong(chunkX, chunkZ);
+		if (data.length == 0) {
+			chunks.remove(chunk);
+			return;
+		}
+
+		LongMap<BlockPos> branches = new LongMap<>(data.length);
+		int baseX = chunkX << 4;
+		int baseZ = chunkZ << 4;
+
+		int i = 0;
+		while (i + 4 <= data.length) {
+			BlockPos rootPos = new BlockPos(data[i], data[i + 1], data[i + 2]);
+			int num = data[i + 3];
+			i += 4;
+			for (int end = Math.min(i + num, data.length); i < end; i++) {
+				int local = data[i];
+				branches.put(new BlockPos(baseX + (local & 15), local >>> 8, baseZ + ((local >> 4) & 15)).toLong(), rootPos);
+			}
+		}
+
+		chunks.put(chunk, branches);
+	}
+
+	/**
+	 * @return The index of a chunk in the form read by {@link #loadChunkData}
+	 */
+	public int[] getChunkData(int chunkX, int chunkZ) {
+		LongMap<BlockPos> branches = chunks.get(ChunkPos.asLong(chunkX, chunkZ));
+		if (branches == null || branches.isEmpty()) {
+			return new int[0];
+		}
+
+		//Group the branches by root
+		Map<BlockPos, List<BlockPos>> groups = new HashMap<>();
+		branches.forEach((rootPos, node) -> groups.computeIfAbsent(rootPos, r -> new ArrayList<>()).add(BlockPos.fromLong(node)));
+
+		int[] data = new int[groups.size() * 4 + branches.size()];
+		int i = 0;
+		for (Map.Entry<BlockPos, List<BlockPos>> entry : groups.entrySet()) {
+			BlockPos rootPos = entry.getKey();
+			data[i++] = rootPos.getX();
+			data[i++] = rootPos.getY();
+			data[i++] = rootPos.getZ();
+			data[i++] = entry.getValue().size();
+			for (BlockPos pos : entry.getValue()) {
+				data[i++] = (pos.getY() & 255) << 8 | (pos.getZ() & 15) << 4 | (pos.getX() & 15);
+			}
+		}
+
+		return data;
+	}
+
+	public void unloadChunk(int chunkX, int chunkZ) {
+		chunks.remove(ChunkPos.asLong(chunkX, chunkZ));
+	}
+
+}
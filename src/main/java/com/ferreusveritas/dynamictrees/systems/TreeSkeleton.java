@@ -0,0 +1,103 @@
+package com.ferreusveritas.dynamictrees.systems;
+
+import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeNetVolume;
+import net.minecraft.util.math.BlockPos;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The shape of a tree as of the last time its branch network was mapped.  Holds the branch endpoints and the radius
+ * of every branch node.  Kept by the {@link TreeSkeletonCache} until a block change touches the tree.
+ */
+public class TreeSkeleton {
+
+	private final BlockPos rootPos;
+	private final BlockPos treePos;
+	private final List<BlockPos> endPoints;
+	private final long[] nodes;//Packed branch positions in the order they were mapped
+	private final long[] sortedNodes;//For radius lookups
+	private final byte[] sortedRadii;
+	private final int trunkHeight;
+	private final int volume;//Voxels of wood.  Same as the NodeNetVolume
+
+	public TreeSkeleton(BlockPos rootPos, BlockPos treePos, List<BlockPos> endPoints, long[] nodes, byte[] radii) {
+		this.rootPos = rootPos;
+		this.treePos = treePos;
+		this.endPoints = new ArrayList<>(endPoints);
+		this.nodes = nodes;
+
+		//Sort a copy of the nodes with their radii along for the ride
+		int num = nodes.length;
+		sortedNodes = nodes.clone();
+		Arrays.sort(sortedNodes);
+		sortedRadii = new byte[num];
+		int vol = 0;
+		for (int i = 0; i < num; i++) {
+			sortedRadii[Arrays.binarySearch(sortedNodes, nodes[i])] = radii[i];
+			vol += radii[i] * radii[i] * 64;
+		}
+		volume = vol;
+
+		//Count the straight run of branch blocks leading away from the root block
+		int dx = treePos.getX() - rootPos.getX();
+		int dy = treePos.getY() - rootPos.getY();
+		int dz = treePos.getZ() - rootPos.getZ();
+		int height = 0;
+		while (containsNode(treePos.add(dx * height, dy * height, dz * height).toLong())) {
+			height++;
+		}
+		trunkHeight = height;
+	}
+
+	public BlockPos getRootPos() {
+		return rootPos;
+	}
+
+	public BlockPos getTreePos() {
+		return treePos;
+	}
+
+	/**
+	 * @return A fresh list of the branch endpoints.  Free to be modified by the caller.
+	 */
+	public List<BlockPos> getEnds() {
+		return new ArrayList<>(endPoints);
+	}
+
+	/**
+	 * @return Packed positions of every branch node.  Do not modify.
+	 */
+	public long[] getNodes() {
+		return nodes;
+	}
+
+	public int getNumNodes() {
+		return nodes.length;
+	}
+
+	public boolean containsNode(long pos) {
+		return Arrays.binarySearch(sortedNodes, pos) >= 0;
+	}
+
+	/**
+	 * @return The radius of the branch at the position or 0 if it isn't part of this tree
+	 */
+	public int getRadius(BlockPos pos) {
+		int index = Arrays.binarySearch(sortedNodes, pos.toLong());
+		return index >= 0 ? sortedRadii[index] : 0;
+	}
+
+	public int getTrunkHeight() {
+		return trunkHeight;
+	}
+
+	/**
+	 * @return The volume of wood in logs.  Same result as a {@link NodeNetVolume} run over the entire tree
+	 */
+	public float getVolume() {
+		return volume / (float) NodeNetVolume.VOXELSPERLOG;
+	}
+
+}
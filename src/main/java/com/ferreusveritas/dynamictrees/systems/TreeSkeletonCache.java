@@ -0,0 +1,214 @@
+package com.ferreusveritas.dynamictrees.systems;
+
+import com.ferreusveritas.dynamictrees.ModConfigs;
+import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.api.network.MapSignal;
+import com.ferreusveritas.dynamictrees.api.treedata.ITreePart;
+import com.ferreusveritas.dynamictrees.blocks.BlockRooty;
+import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeFindEnds;
+import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeSkeleton;
+import com.ferreusveritas.dynamictrees.util.LongMap;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per world cache of {@link TreeSkeleton}s keyed by the position of the rooty block.
+ * <p>
+ * Every branch of a cached tree is indexed so that block changes reported to the
+ * {@link com.ferreusveritas.dynamictrees.event.WorldListener} can drop only the trees they touch.  A tree is dropped
+ * when one of its branches changes(radius or removal), when its rooty block is replaced, or when a new branch appears
+ * next to one of its branches.  Anything else leaves the skeleton alone so unchanged trees are never mapped again.
+ * <p>
+ * Networks that overflowed or have more than one root are never cached.
+ */
+public class TreeSkeletonCache {
+
+	private static final Map<World, TreeSkeletonCache> caches = new ConcurrentHashMap<>();
+
+	private final LongMap<TreeSkeleton> skeletons = new LongMap<>();//Keyed by root position
+	private final LongMap<TreeSkeleton> branchIndex = new LongMap<>(1024);//Keyed by branch position
+
+	private long hits;
+	private long misses;
+	private long invalidations;
+
+	public static TreeSkeletonCache get(World world) {
+		return caches.computeIfAbsent(world, w -> new TreeSkeletonCache());
+	}
+
+	public static void unloadWorld(World world) {
+		caches.remove(world);
+	}
+
+	/**
+	 * Get the skeleton of a tree.  The tree is mapped if it isn't cached.
+	 *
+	 * @param world   The world
+	 * @param rootPos The position of the rooty block
+	 * @return The skeleton or null if there's no rooty block at rootPos
+	 */
+	public TreeSkeleton getSkeleton(World world, BlockPos rootPos) {
+		BlockRooty rooty = TreeHelper.getRooty(world.getBlockState(rootPos));
+		if (rooty == null) {
+			return null;
+		}
+		BlockPos treePos = rootPos.offset(rooty.getTrunkDirection(world, rootPos));
+		return getSkeleton(world, rootPos, treePos, TreeHelper.getTreePart(world.getBlockState(treePos)));
+	}
+
+	/**
+	 * Get the skeleton of a tree.  The tree is mapped if it isn't cached.
+	 *
+	 * @param world    The world
+	 * @param rootPos  The position of the rooty block
+	 * @param treePos  The position of the base of the trunk
+	 * @param treeBase The tree part at the base of the trunk
+	 * @return The skeleton.  Never null
+	 */
+	public TreeSkeleton getSkeleton(World world, BlockPos rootPos, BlockPos treePos, ITreePart treeBase) {
+		if (ModConfigs.treeSkeletonCache) {
+			TreeSkeleton skeleton = skeletons.get(rootPos.toLong());
+			if (skeleton != null && skeleton.getTreePos().equals(treePos)) {
+				hits++;
+				return skeleton;
+			}
+			misses++;
+		}
+
+		NodeFindEnds endFinder = new NodeFindEnds();
+		NodeSkeleton skeletonMapper = new NodeSkeleton();
+		MapSignal signal = new MapSignal(endFinder, skeletonMapper);
+		treeBase.analyse(world.getBlockState(treePos), world, treePos, null, signal);
+		TreeSkeleton skeleton = skeletonMapper.getSkeleton(rootPos, treePos, endFinder.getEnds());
+
+		if (signal.found && !signal.overflow && !signal.multiroot) {
+			if (ModConfigs.treeSkeletonCache) {
+				put(skeleton);
+			}
+			if (ModConfigs.treeRootIndex && !world.isRemote) {//Might as well keep the root index up to date while we're here
+				TreeRootIndex.get(world).setRoot(skeleton.getNodes(), skeleton.getNumNodes(), rootPos);
+			}
+		}
+
+		return skeleton;
+	}
+
+	/**
+	 * Get the cached skeleton of the tree a branch belongs to without mapping anything.  Only hits are counted since
+	 * the caller is expected to follow a miss up with {@link #getSkeleton}.
+	 *
+	 * @return The skeleton or null if the tree isn't cached
+	 */
+	public TreeSkeleton findSkeleton(BlockPos branchPos) {
+		if (!ModConfigs.treeSkeletonCache) {
+			return null;
+		}
+		TreeSkeleton skeleton = branchIndex.get(branchPos.toLong());
+		if (skeleton != null) {
+			hits++;
+		}
+		return skeleton;
+	}
+
+	private void put(TreeSkeleton skeleton) {
+		remove(skeletons.get(skeleton.getRootPos().toLong()));
+		skeletons.put(skeleton.getRootPos().toLong(), skeleton);
+		for (long node : skeleton.getNodes()) {
+			branchIndex.put(node, skeleton);
+		}
+	}
+
+	private void remove(TreeSkeleton skeleton) {
+		if (skeleton != null) {
+			discard(skeleton);
+			invalidations++;
+		}
+	}
+
+	private void discard(TreeSkeleton skeleton) {
+		skeletons.remove(skeleton.getRootPos().toLong());
+		for (long node : skeleton.getNodes()) {
+			if (branchIndex.get(node) == skeleton) {
+				branchIndex.remove(node);
+			}
+		}
+	}
+
+	/**
+	 * Drop whatever trees a block change could have altered.
+	 *
+	 * @param pos      The position of the block that changed
+	 * @param oldState The previous state of the block
+	 * @param newState The new state of the block
+	 */
+	public void blockChanged(BlockPos pos, IBlockState oldState, IBlockState newState) {
+		if (skeletons.isEmpty()) {
+			return;
+		}
+
+		long key = pos.toLong();
+		remove(branchIndex.get(key));//Branch radius changed or the branch is gone
+
+		if (oldState.getBlock() != newState.getBlock()) {//State changes of the same block(soil life, etc) don't alter the network
+			remove(skeletons.get(key));//Rooty block is gone
+
+			if (TreeHelper.getTreePart(newState).shouldAnalyse()) {
+				for (EnumFacing dir : EnumFacing.VALUES) {//A new tree part may have joined a tree
+					remove(branchIndex.get(pos.offset(dir).toLong()));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Drop the tree a branch belongs to.  For branches that were changed without notifying the world listeners.
+	 */
+	public void invalidate(BlockPos branchPos) {
+		remove(branchIndex.get(branchPos.toLong()));
+	}
+
+	/**
+	 * Drop every tree rooted in a chunk.
+	 */
+	public void unloadChunk(int chunkX, int chunkZ) {
+		if (skeletons.isEmpty()) {
+			return;
+		}
+		List<TreeSkeleton> unloaded = new ArrayList<>();
+		skeletons.forEachValue(skeleton -> {
+			BlockPos rootPos = skeleton.getRootPos();
+			if (rootPos.getX() >> 4 == chunkX && rootPos.getZ() >> 4 == chunkZ) {
+				unloaded.add(skeleton);
+			}
+		});
+		unloaded.forEach(this::discard);
+	}
+
+	public int size() {
+		return skeletons.size();
+	}
+
+	public long getHits() {
+		return hits;
+	}
+
+	public long getMisses() {
+		return misses;
+	}
+
+	public long getInvalidations() {
+		return invalidations;
+	}
+
+	public void resetCounters() {
+		hits = misses = invalidations = 0;
+	}
+
+}
@@ -3,10 +3,10 @@ package com.ferreusveritas.dynamictrees.systems.featuregen;
 import com.ferreusveritas.dynamictrees.api.IPostGenFeature;
 import com.ferreusveritas.dynamictrees.api.IPostGrowFeature;
 import com.ferreusveritas.dynamictrees.api.TreeHelper;
-import com.ferreusveritas.dynamictrees.api.network.MapSignal;
 import com.ferreusveritas.dynamictrees.blocks.BlockBranch;
 import com.ferreusveritas.dynamictrees.blocks.BlockFruit;
-import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeFindEnds;
+import com.ferreusveritas.dynamictrees.systems.TreeSkeleton;
+import com.ferreusveritas.dynamictrees.systems.TreeSkeletonCache;
 import com.ferreusveritas.dynamictrees.trees.Species;
 import com.ferreusveritas.dynamictrees.util.CoordUtils;
 import com.ferreusveritas.dynamictrees.util.SafeChunkBounds;
@@ -15,6 +15,7 @@ import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 import net.minecraft.world.biome.Biome;
 
+import java.util.Collections;
 import java.util.List;
 
 public class FeatureGenFruit implements IPostGrowFeature, IPostGenFeature {
@@ -74,9 +75,8 @@ public class FeatureGenFruit implements IPostGrowFeature, IPostGenFeature {
 
 		if (branch != null && branch.getRadius(blockState) >= fruitingRadius && natural) {
 			if (species.seasonalFruitProductionFactor(world, rootPos) > world.rand.nextFloat()) {
-				NodeFindEnds endFinder = new NodeFindEnds();
-				TreeHelper.startAnalysisFromRoot(world, rootPos, new MapSignal(endFinder));
-				List<BlockPos> endPoints = endFinder.getEnds();
+				TreeSkeleton skeleton = TreeSkeletonCache.get(world).getSkeleton(world, rootPos);
+				List<BlockPos> endPoints = skeleton != null ? skeleton.getEnds() : Collections.emptyList();
 				int qty = getQuantity(false);
 
 				if (!endPoints.isEmpty()) {
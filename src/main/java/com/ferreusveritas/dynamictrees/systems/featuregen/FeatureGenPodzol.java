@@ -3,10 +3,9 @@ package com.ferreusveritas.dynamictrees.systems.featuregen;
 import com.ferreusveritas.dynamictrees.ModBlocks;
 import com.ferreusveritas.dynamictrees.ModConfigs;
 import com.ferreusveritas.dynamictrees.api.IPostGrowFeature;
-import com.ferreusveritas.dynamictrees.api.TreeHelper;
-import com.ferreusveritas.dynamictrees.api.network.MapSignal;
 import com.ferreusveritas.dynamictrees.blocks.BlockBranch;
-import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeFindEnds;
+import com.ferreusveritas.dynamictrees.systems.TreeSkeleton;
+import com.ferreusveritas.dynamictrees.systems.TreeSkeletonCache;
 import com.ferreusveritas.dynamictrees.trees.Species;
 import net.minecraft.block.*;
 import net.minecraft.init.Blocks;
@@ -15,6 +14,7 @@ import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.EnumSkyBlock;
 import net.minecraft.world.World;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 
@@ -23,9 +23,8 @@ public class FeatureGenPodzol implements IPostGrowFeature {
 	@Override
 	public boolean postGrow(World world, BlockPos rootPos, BlockPos treePos, Species species, int soilLife, boolean natural) {
 		if (ModConfigs.podzolGen) {
-			NodeFindEnds endFinder = new NodeFindEnds();
-			TreeHelper.startAnalysisFromRoot(world, rootPos, new MapSignal(endFinder));
-			List<BlockPos> endPoints = endFinder.getEnds();
+			TreeSkeleton skeleton = TreeSkeletonCache.get(world).getSkeleton(world, rootPos);
+			List<BlockPos> endPoints = skeleton != null ? skeleton.getEnds() : Collections.emptyList();
 			if (!endPoints.isEmpty()) {
 
 				Random random = world.rand;
@@ -1,6 +1,7 @@
 package com.ferreusveritas.dynamictrees.systems.nodemappers;
 
 import com.ferreusveritas.dynamictrees.api.network.INodeInspector;
+import com.ferreusveritas.dynamictrees.util.LongSet;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
@@ -10,15 +11,30 @@ import java.util.Set;
 
 public class NodeCollector implements INodeInspector {
 
-	private final Set<BlockPos> nodeSet;
+	private final LongSet nodes;
+	private final Set<BlockPos> nodeSet;//Only for collectors made with the old Set constructor
 
-	public NodeCollector(Set nodeSet) {
+	public NodeCollector(LongSet nodes) {
+		this.nodes = nodes;
+		this.nodeSet = null;
+	}
+
+	/**
+	 * @deprecated Boxes every position.  Use {@link #NodeCollector(LongSet)}
+	 */
+	@Deprecated
+	public NodeCollector(Set<BlockPos> nodeSet) {
+		this.nodes = null;
 		this.nodeSet = nodeSet;
 	}
 
 	@Override
 	public boolean run(IBlockState blockState, World world, BlockPos pos, EnumFacing fromDir) {
-		nodeSet.add(pos);
+		if (nodes != null) {
+			nodes.add(pos.toLong());
+		} else {
+			nodeSet.add(pos);
+		}
 		return false;
 	}
 
@@ -28,7 +44,7 @@ public class NodeCollector implements INodeInspector {
 	}
 
 	public boolean contains(BlockPos pos) {
-		return nodeSet.contains(pos);
+		return nodes != null ? nodes.contains(pos.toLong()) : nodeSet.contains(pos);
 	}
 
 }
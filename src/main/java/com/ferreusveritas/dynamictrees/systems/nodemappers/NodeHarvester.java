@@ -0,0 +1,101 @@
+package com.ferreusveritas.dynamictrees.systems.nodemappers;
+
+import com.ferreusveritas.dynamictrees.api.network.INodeInspector;
+import com.ferreusveritas.dynamictrees.blocks.BlockBranch;
+import com.ferreusveritas.dynamictrees.trees.Species;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Records the entire branch network in a single pass for {@link BlockBranch#destroyBranchFromNode}.
+ * <p>
+ * The species is determined as the network is mapped.  Every node is stored along with the side of the cut that it
+ * hangs from so that once the direction of the root node is known the part of the tree beyond the cut can be replayed
+ * into other inspectors without walking the network again.  Nodes are replayed in the order they were originally
+ * visited which is the same order a walk starting at the cut position would have produced.
+ * <p>
+ * A network that overflowed has been altered by the walk and should not be replayed.
+ */
+public class NodeHarvester implements INodeInspector {
+
+	private static final byte CUTNODE = -1;//Side code for the node that was cut(and anything reached before leaving it)
+	private static final byte NODIR = -1;
+
+	private final BlockPos cutPos;
+	private final NodeSpecies nodeSpecies = new NodeSpecies();
+
+	private final List<BlockPos> nodes = new ArrayList<>(64);
+	private final List<IBlockState> states = new ArrayList<>(64);
+	private byte[] fromDirs = new byte[64];
+	private byte[] sides = new byte[64];
+	private byte side = CUTNODE;
+
+	public NodeHarvester(BlockPos cutPos) {
+		this.cutPos = cutPos;
+	}
+
+	@Override
+	public boolean run(IBlockState blockState, World world, BlockPos pos, EnumFacing fromDir) {
+		nodeSpecies.run(blockState, world, pos, fromDir);
+
+		if (fromDir != null) {
+			//If the node we came from is the cut node then we've just started down a new side
+			if (pos.getX() + fromDir.getFrontOffsetX() == cutPos.getX() &&
+				pos.getY() + fromDir.getFrontOffsetY() == cutPos.getY() &&
+				pos.getZ() + fromDir.getFrontOffsetZ() == cutPos.getZ()) {
+				side = (byte) fromDir.getOpposite().getIndex();
+			}
+		}
+
+		int index = nodes.size();
+		if (index == sides.length) {
+			sides = Arrays.copyOf(sides, index * 2);
+			fromDirs = Arrays.copyOf(fromDirs, index * 2);
+		}
+
+		nodes.add(pos);
+		states.add(blockState);
+		sides[index] = side;
+		fromDirs[index] = fromDir != null ? (byte) fromDir.getIndex() : NODIR;
+
+		return true;
+	}
+
+	@Override
+	public boolean returnRun(IBlockState blockState, World world, BlockPos pos, EnumFacing fromDir) {
+		return false;
+	}
+
+	public Species getSpecies() {
+		return nodeSpecies.getSpecies();
+	}
+
+	/**
+	 * Runs the inspectors over every recorded node that isn't on the excluded side of the cut.
+	 *
+	 * @param world      The world
+	 * @param excludeDir The side of the cut that leads to the root node or null to replay the whole network
+	 * @param inspectors The inspectors to run.  Only run() is called since the nodes are no longer in a tree order
+	 */
+	public void replay(World world, EnumFacing excludeDir, INodeInspector... inspectors) {
+		int exclude = excludeDir != null ? excludeDir.getIndex() : NODIR;
+
+		for (int i = 0; i < nodes.size(); i++) {
+			if (exclude == NODIR || sides[i] != exclude) {
+				IBlockState state = states.get(i);
+				BlockPos pos = nodes.get(i);
+				EnumFacing fromDir = fromDirs[i] != NODIR ? EnumFacing.getFront(fromDirs[i]) : excludeDir;//The cut node is entered from the excluded side
+				for (INodeInspector inspector : inspectors) {
+					inspector.run(state, world, pos, fromDir);
+				}
+			}
+		}
+	}
+
+}
@@ -5,6 +5,7 @@ import com.ferreusveritas.dynamictrees.api.network.INodeInspector;
 import com.ferreusveritas.dynamictrees.api.treedata.ITreePart;
 import com.ferreusveritas.dynamictrees.blocks.BlockBranch;
 import com.ferreusveritas.dynamictrees.trees.Species;
+import com.ferreusveritas.dynamictrees.util.CompiledVoxmap;
 import com.ferreusveritas.dynamictrees.util.SimpleVoxmap;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.util.EnumFacing;
@@ -69,8 +70,8 @@ public class NodeInflator implements INodeInspector {
 				//Handle leaves here
 				if (leafMap != null) {
 					leafMap.setVoxel(pos, (byte) 16);//16(bit 5) is code for a twig
-					SimpleVoxmap leafCluster = species.getLeavesProperties().getCellKit().getLeafCluster();
-					leafMap.blitMax(pos, leafCluster);
+					CompiledVoxmap leafCluster = CompiledVoxmap.of(species.getLeavesProperties().getCellKit().getLeafCluster());
+					leafCluster.blitMax(leafMap, pos);
 				}
 			} else {
 				//The new branch should be the square root of all of the sums of the areas of the branches coming into it.
@@ -0,0 +1,41 @@
+package com.ferreusveritas.dynamictrees.systems.nodemappers;
+
+import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.api.network.INodeInspector;
+import com.ferreusveritas.dynamictrees.systems.TreeRootIndex;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+import java.util.Arrays;
+
+/**
+ * Gathers the branches of a network so they can be added to the {@link TreeRootIndex} once the root is known.
+ */
+public class NodeRootIndexer implements INodeInspector {
+
+	private long[] nodes = new long[64];
+	private int numNodes;
+
+	@Override
+	public boolean run(IBlockState blockState, World world, BlockPos pos, EnumFacing fromDir) {
+		if (TreeHelper.isBranch(blockState)) {
+			if (numNodes == nodes.length) {
+				nodes = Arrays.copyOf(nodes, numNodes * 2);
+			}
+			nodes[numNodes++] = pos.toLong();
+		}
+		return true;
+	}
+
+	@Override
+	public boolean returnRun(IBlockState blockState, World world, BlockPos pos, EnumFacing fromDir) {
+		return false;
+	}
+
+	public void index(World world, BlockPos rootPos) {
+		TreeRootIndex.get(world).setRoot(nodes, numNodes, rootPos);
+	}
+
+}
@@ -0,0 +1,46 @@
+package com.ferreusveritas.dynamictrees.systems.nodemappers;
+
+import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.api.network.INodeInspector;
+import com.ferreusveritas.dynamictrees.systems.TreeSkeleton;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Records the position and radius of every branch in the network so that a {@link TreeSkeleton} can be made.
+ */
+public class NodeSkeleton implements INodeInspector {
+
+	private long[] nodes = new long[64];
+	private byte[] radii = new byte[64];
+	private int numNodes;
+
+	@Override
+	public boolean run(IBlockState blockState, World world, BlockPos pos, EnumFacing fromDir) {
+		if (TreeHelper.isBranch(blockState)) {
+			if (numNodes == nodes.length) {
+				nodes = Arrays.copyOf(nodes, numNodes * 2);
+				radii = Arrays.copyOf(radii, numNodes * 2);
+			}
+			nodes[numNodes] = pos.toLong();
+			radii[numNodes] = (byte) TreeHelper.getTreePart(blockState).getRadius(blockState);
+			numNodes++;
+		}
+		return true;
+	}
+
+	@Override
+	public boolean returnRun(IBlockState blockState, World world, BlockPos pos, EnumFacing fromDir) {
+		return false;
+	}
+
+	public TreeSkeleton getSkeleton(BlockPos rootPos, BlockPos treePos, List<BlockPos> endPoints) {
+		return new TreeSkeleton(rootPos, treePos, endPoints, Arrays.copyOf(nodes, numNodes), Arrays.copyOf(radii, numNodes));
+	}
+
+}
@@ -0,0 +1,169 @@
+package com.ferreusveritas.dynamictrees.systems.poissondisc;
+
+import com.ferreusveritas.dynamictrees.util.LongMap;
+
+/**
+ * The {@link PoissonDiscChunkSet}s of a dimension keyed by chunk with the least recently used dropped once there are
+ * more than a set number of them.  Each chunk may also keep the radius grid of its {@link
+ * com.ferreusveritas.dynamictrees.api.worldgen.IRadiusCoordinator} which goes with it.
+ * <p>
+ * Only sets that can be rebuilt as they were are dropped: those without discs that weren't generated here.  The rest
+ * belong to loaded chunks and are written back to the chunk's GTCD tag when it's saved and forgotten when it unloads,
+ * so they're kept whatever the limit.  Once a set is found to be one of those it's moved to a list of its own and
+ * never looked at by the eviction again, so a cache full of them costs nothing to add to.  Every method locks the
+ * cache so chunks can be saved and loaded from other threads.
+ */
+public class PoissonDiscChunkCache {
+
+	//Rough size of a cached set: the node, the set, its 16 bytes of data, a radius grid and the map slot
+	public static final int BYTESPERSET = 216;
+
+	private final LongMap<Node> nodes = new LongMap<>(256);
+	private final Node order = new Node(0, null);//Most recently used after it, least recently used before it
+	private final Node kept = new Node(0, null);//Sets that can't be dropped.  In no particular order
+	private final int capacity;
+
+	//Statistics
+	private long hits;
+	private long misses;
+	private long evictions;
+	private long radiusGrids;
+
+	public PoissonDiscChunkCache(int capacity) {
+		this.capacity = capacity;
+		order.prev = order.next = order;
+		kept.prev = kept.next = kept;
+	}
+
+	/**
+	 * @return The set of the chunk or null if there isn't one
+	 */
+	public synchronized PoissonDiscChunkSet get(int chunkX, int chunkZ) {
+		Node node = nodes.get(chunkKey(chunkX, chunkZ));
+		if (node == null) {
+			misses++;
+			return null;
+		}
+		hits++;
+		if (!node.kept) {
+			node.unlink();
+			node.linkAfter(order);
+		}
+		return node.set;
+	}
+
+	/**
+	 * @return The set of the chunk.  A new empty one if there wasn't one
+	 */
+	public synchronized PoissonDiscChunkSet getOrCreate(int chunkX, int chunkZ) {
+		PoissonDiscChunkSet set = get(chunkX, chunkZ);
+		if (set == null) {
+			long key = chunkKey(chunkX, chunkZ);
+			Node node = new Node(key, new PoissonDiscChunkSet());
+			nodes.put(key, node);
+			node.linkAfter(order);
+			evict();
+			set = node.set;
+		}
+		return set;
+	}
+
+	/**
+	 * @return The radius grid of the chunk or null if it hasn't been made
+	 */
+	public synchronized int[] getRadiusGrid(int chunkX, int chunkZ) {
+		Node node = nodes.get(chunkKey(chunkX, chunkZ));
+		return node != null ? node.radii : null;
+	}
+
+	/**
+	 * Keep the radius grid of a chunk.  Makes an entry for the chunk if there isn't one.
+	 */
+	public synchronized void setRadiusGrid(int chunkX, int chunkZ, int[] radii) {
+		getOrCreate(chunkX, chunkZ);
+		nodes.get(chunkKey(chunkX, chunkZ)).radii = radii;
+		radiusGrids++;
+	}
+
+	public synchronized void remove(int chunkX, int chunkZ) {
+		Node node = nodes.remove(chunkKey(chunkX, chunkZ));
+		if (node != null) {
+			node.unlink();
+		}
+	}
+
+	private void evict() {
+		//The most recently used set is never dropped.  It's the one that was just asked for
+		while (nodes.size() > capacity && order.prev != order.next) {
+			Node node = order.prev;
+			node.unlink();
+			if (node.set.generated || !node.set.isEmpty()) {
+				node.kept = true;//Sets don't lose their discs so this is for good
+				node.linkAfter(kept);
+			} else {
+				nodes.remove(node.key);
+				evictions++;
+			}
+		}
+	}
+
+	private static long chunkKey(int chunkX, int chunkZ) {
+		return (long) chunkX & 0xFFFFFFFFL | ((long) chunkZ & 0xFFFFFFFFL) << 32;
+	}
+
+	public synchronized int size() {
+		return nodes.size();
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * @return The number of radius grids that were made
+	 */
+	public synchronized long getRadiusGrids() {
+		return radiusGrids;
+	}
+
+	public synchronized void resetCounters() {
+		hits = misses = evictions = radiusGrids = 0;
+	}
+
+	private static class Node {
+
+		private final long key;
+		private final PoissonDiscChunkSet set;
+		private int[] radii;
+		private boolean kept;
+		private Node prev;
+		private Node next;
+
+		Node(long key, PoissonDiscChunkSet set) {
+			this.key = key;
+			this.set = set;
+		}
+
+		void linkAfter(Node node) {
+			prev = node;
+			next = node.next;
+			next.prev = this;
+			node.next = this;
+		}
+
+		void unlink() {
+			prev.next = next;
+			next.prev = prev;
+		}
+
+	}
+
+}
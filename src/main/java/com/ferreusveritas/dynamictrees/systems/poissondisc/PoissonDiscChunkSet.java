@@ -124,6 +124,18 @@ public class PoissonDiscChunkSet {
 		return false;
 	}
 
+	/**
+	 * @return true if there are no discs in any of the tiles
+	 */
+	public boolean isEmpty() {
+		for (byte cd : discData) {
+			if (cd != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	public byte[] getDiscData() {
 		return discData;
 	}
@@ -0,0 +1,97 @@
+package com.ferreusveritas.dynamictrees.systems.poissondisc;
+
+import com.ferreusveritas.dynamictrees.util.LongMap;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A uniform grid over the centers of the discs in a working list so that a disc is only tested against the discs near
+ * it.  The cells are as wide as the largest disc radius and hold the indices of the discs in the list.  The grid has to
+ * be told about every change to the list to stay in step with it.
+ */
+class PoissonDiscGrid {
+
+	private static final int CELLBITS = 3;//Cells of 8 blocks.  The largest radius
+
+	private final LongMap<int[]> cells = new LongMap<>(64);//Indices keyed by cell.  The first element is the count
+	private int[] found = new int[64];
+
+	public void clear() {
+		cells.clear();
+	}
+
+	public void add(PoissonDisc disc, int index) {
+		long key = cellKey(disc.x >> CELLBITS, disc.z >> CELLBITS);
+		int[] cell = cells.get(key);
+		if (cell == null) {
+			cell = new int[8];
+			cells.put(key, cell);
+		} else if (cell[0] == cell.length - 1) {
+			cell = Arrays.copyOf(cell, cell.length * 2);
+			cells.put(key, cell);
+		}
+		cell[++cell[0]] = index;
+	}
+
+	public void remove(PoissonDisc disc, int index) {
+		int[] cell = cells.get(cellKey(disc.x >> CELLBITS, disc.z >> CELLBITS));
+		for (int i = 1; i <= cell[0]; i++) {
+			if (cell[i] == index) {
+				cell[i] = cell[cell[0]--];
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Mirror {@link PoissonDiscHelper#fastRemove(List, int)}.  Call before removing from the list.
+	 */
+	public void fastRemove(List<PoissonDisc> discs, int index) {
+		int last = discs.size() - 1;
+		remove(discs.get(index), index);
+		if (index < last) {
+			remove(discs.get(last), last);
+			add(discs.get(last), index);
+		}
+	}
+
+	/**
+	 * Find the indices of the discs whose centers are within a distance along both axes of a position.  Some that are
+	 * a little further may be included.
+	 *
+	 * @param x     X-Axis
+	 * @param z     Z-Axis
+	 * @param reach The distance along either axis
+	 * @return The number of indices in {@link #getFound()} in ascending order
+	 */
+	public int findNear(int x, int z, int reach) {
+		int num = 0;
+		for (int cx = (x - reach) >> CELLBITS; cx <= (x + reach) >> CELLBITS; cx++) {
+			for (int cz = (z - reach) >> CELLBITS; cz <= (z + reach) >> CELLBITS; cz++) {
+				int[] cell = cells.get(cellKey(cx, cz));
+				if (cell != null) {
+					if (num + cell[0] > found.length) {
+						found = Arrays.copyOf(found, Math.max(found.length * 2, num + cell[0]));
+					}
+					System.arraycopy(cell, 1, found, num, cell[0]);
+					num += cell[0];
+				}
+			}
+		}
+		Arrays.sort(found, 0, num);
+		return num;
+	}
+
+	/**
+	 * @return The indices from the last {@link #findNear(int, int, int)}.  Overwritten by the next one
+	 */
+	public int[] getFound() {
+		return found;
+	}
+
+	private static long cellKey(int cellX, int cellZ) {
+		return (long) cellX & 0xFFFFFFFFL | ((long) cellZ & 0xFFFFFFFFL) << 32;
+	}
+
+}
@@ -1,12 +1,12 @@
 package com.ferreusveritas.dynamictrees.systems.poissondisc;
 
+import com.ferreusveritas.dynamictrees.ModConfigs;
 import com.ferreusveritas.dynamictrees.api.worldgen.IPoissonDebug;
 import com.ferreusveritas.dynamictrees.api.worldgen.IPoissonDiscProvider;
 import com.ferreusveritas.dynamictrees.api.worldgen.IRadiusCoordinator;
 import com.ferreusveritas.dynamictrees.util.CoordUtils;
 import com.ferreusveritas.dynamictrees.util.RandomXOR;
 import net.minecraft.util.math.BlockPos;
-import net.minecraft.util.math.ChunkPos;
 import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.math.Vec3i;
 
@@ -21,12 +21,16 @@ import java.util.Map.Entry;
 public class PoissonDiscProvider implements IPoissonDiscProvider {
 
 	private final IRadiusCoordinator radiusCoordinator;
-	private final HashMap<ChunkPos, PoissonDiscChunkSet> chunkDiscs;
+	private final PoissonDiscChunkCache chunkDiscs;
 	private RandomXOR random = new RandomXOR();
 	private IPoissonDebug debug;
 
+	//Discs further apart than these along either axis can't affect one another
+	private static final int MASKREACH = 18;//Radius of both discs plus the 2 block gap tested by PoissonDiscHelper.maskDiscs
+	private static final int INTERSECTREACH = 16;//Radius of both discs
+
 	public PoissonDiscProvider(IRadiusCoordinator radCoord) {
-		chunkDiscs = new HashMap<ChunkPos, PoissonDiscChunkSet>();
+		chunkDiscs = new PoissonDiscChunkCache(ModConfigs.poissonDiscCacheSize);
 		radiusCoordinator = radCoord;
 	}
 
@@ -40,10 +44,14 @@ public class PoissonDiscProvider implements IPoissonDiscProvider {
 		this.debug = debug;
 	}
 
+	/**
+	 * Generation is done one chunk at a time since each chunk's discs are fitted to its neighbors' and the random
+	 * sequence is shared.
+	 */
 	@Override
-	public List<PoissonDisc> getPoissonDiscs(int chunkX, int chunkY, int chunkZ) {
+	public synchronized List<PoissonDisc> getPoissonDiscs(int chunkX, int chunkY, int chunkZ) {
 		random.setXOR(new BlockPos(chunkX, chunkY, chunkZ));
-		PoissonDiscChunkSet cSet = getChunkDiscSet(chunkX, chunkZ);
+		PoissonDiscChunkSet cSet = chunkDiscs.getOrCreate(chunkX, chunkZ);
 		if (cSet.generated) {
 			return getChunkPoissonDiscs(chunkX, chunkZ);
 		} else {
@@ -57,17 +65,12 @@ public class PoissonDiscProvider implements IPoissonDiscProvider {
 		}
 	}
 
-	//A set of caches so we needn't create the lists from scratch for every chunk
-	private final List<PoissonDisc> discCache1 = new ArrayList<PoissonDisc>(64);//64 is above the typical range to expect for 9 chunks
-	private final List<PoissonDisc> discCache2 = new ArrayList<PoissonDisc>(64);
-
-	public List<PoissonDisc> generatePoissonDiscs(Random random, int chunkX, int chunkZ) {
+	public synchronized List<PoissonDisc> generatePoissonDiscs(Random random, int chunkX, int chunkZ) {
 
-		// Step 0.) Clear the temporary caches
-		List<PoissonDisc> allDiscs = discCache1;
-		List<PoissonDisc> unsolvedDiscs = discCache2;
-		allDiscs.clear();
-		unsolvedDiscs.clear();
+		// Step 0.) Create the working lists.  Kept to this call so nothing is left shared between generations
+		List<PoissonDisc> allDiscs = new ArrayList<PoissonDisc>(64);//64 is above the typical range to expect for 9 chunks
+		List<PoissonDisc> unsolvedDiscs = new ArrayList<PoissonDisc>(64);
+		PoissonDiscGrid grid = new PoissonDiscGrid();//Indexes the discs of allDiscs
 		if (debug != null) {
 			debug.begin(chunkX, chunkZ);
 		}
@@ -79,6 +82,9 @@ public class PoissonDiscProvider implements IPoissonDiscProvider {
 			Vec3i dir = surr.getOffset();
 			getChunkPoissonDiscs(allDiscs, chunkX + dir.getX(), chunkZ + dir.getZ());
 		}
+		for (int i = 0; i < allDiscs.size(); i++) {
+			grid.add(allDiscs.get(i), i);
+		}
 		if (debug != null) {
 			debug.collectSolved(allDiscs);
 		}
@@ -98,8 +104,13 @@ public class PoissonDiscProvider implements IPoissonDiscProvider {
 
 		// Step 3.) Mask out circles against one another
 		for (int i = 0; i < allDiscs.size() - 1; i++) {
-			for (int j = i + 1; j < allDiscs.size(); j++) {
-				PoissonDiscHelper.maskDiscs(allDiscs.get(i), allDiscs.get(j));
+			PoissonDisc disc = allDiscs.get(i);
+			int num = grid.findNear(disc.x, disc.z, MASKREACH);
+			int[] near = grid.getFound();
+			for (int n = 0; n < num; n++) {
+				if (near[n] > i) {
+					PoissonDiscHelper.maskDiscs(disc, allDiscs.get(near[n]));
+				}
 			}
 		}
 		if (debug != null) {
@@ -111,9 +122,10 @@ public class PoissonDiscProvider implements IPoissonDiscProvider {
 		if (allDiscs.size() == 0) {
 			int x = chunkXStart + random.nextInt(16);
 			int z = chunkZStart + random.nextInt(16);
-			int radius = radiusCoordinator.getRadiusAtCoords(x, z);
+			int radius = getRadius(x, z);
 			PoissonDisc rootDisc = new PoissonDisc(x, z, radius);
 			rootDisc.real = true;
+			grid.add(rootDisc, allDiscs.size());
 			allDiscs.add(rootDisc);
 			if (debug != null) {
 				debug.createRootDisc(allDiscs, rootDisc);
@@ -155,7 +167,7 @@ public class PoissonDiscProvider implements IPoissonDiscProvider {
 				//System.out.println("dir: " + (CCW ? "CCW" : "CW") + ", angle: " + (angle * 180 / Math.PI));
 				double dx = master.x + (MathHelper.sin(angle) * master.radius * 1.5);
 				double dz = master.z + (MathHelper.cos(angle) * master.radius * 1.5);
-				radius = radiusCoordinator.getRadiusAtCoords((int) dx, (int) dz);
+				radius = getRadius((int) dx, (int) dz);
 				if (debug != null) {
 					debug.getRadius(master, radius, unsolvedDiscs, allDiscs);
 				}
@@ -167,7 +179,7 @@ public class PoissonDiscProvider implements IPoissonDiscProvider {
 					debug.findSecondDisc(master, slave, unsolvedDiscs, allDiscs);
 				}
 
-				if (doesDiscIntersectWith(slave, allDiscs)) {
+				if (doesDiscIntersectWith(slave, allDiscs, grid)) {
 					break;
 				}
 			}
@@ -182,7 +194,9 @@ public class PoissonDiscProvider implements IPoissonDiscProvider {
 			// Step 10.) Create a list of existing circles that are intersecting with this circle.  List is ordered by penetration depth.
 			int i = 0;
 			Map<Integer, PoissonDisc> intersecting = new TreeMap<Integer, PoissonDisc>();
-			for (PoissonDisc c : allDiscs) {
+			int numNear = grid.findNear(slave.x, slave.z, INTERSECTREACH);
+			for (int n = 0; n < numNear; n++) {
+				PoissonDisc c = allDiscs.get(grid.getFound()[n]);
 				if (slave.doCirclesIntersectPadding(c)) {
 					int depth = 16 + (int) c.discPenetration(slave);
 					intersecting.put(depth << 8 | i++, c);
@@ -212,7 +226,11 @@ public class PoissonDiscProvider implements IPoissonDiscProvider {
 				}
 				if (slave != null) {//Found a 3rd circle candidate
 					//System.out.println("slave is not null");
-					for (int ci = 0; ci < allDiscs.size(); ci++) {
+					//Visit the nearby circles in the same order as a walk through the whole list would
+					int[] near = Arrays.copyOf(grid.getFound(), grid.findNear(slave.x, slave.z, INTERSECTREACH));
+					int end = near.length;
+					for (int n = 0; n < end; n++) {
+						int ci = near[n];
 						PoissonDisc c = allDiscs.get(ci);
 						if (slave.doCirclesIntersectPadding(c)) {//See if this new circle intersects with any of the existing circles. If it does then..
 							if (debug != null) {
@@ -224,7 +242,13 @@ public class PoissonDiscProvider implements IPoissonDiscProvider {
 								break;//We needn't continue since we've proven that the circle intersects with any circle
 							} else {//The overlapping circle is not real.. but the slave circle is.
 								//System.out.println("Delete the offending non-real circle.");
-								PoissonDiscHelper.fastRemove(allDiscs, ci--);//Delete the offending non-real circle. The order of the circles is unimportant
+								int last = allDiscs.size() - 1;
+								grid.fastRemove(allDiscs, ci);
+								PoissonDiscHelper.fastRemove(allDiscs, ci);//Delete the offending non-real circle. The order of the circles is unimportant
+								if (ci < last && near[end - 1] == last) {//The last circle took its place and is nearby too.  Check it next
+									near[n--] = ci;
+									end--;
+								}
 							}
 						}
 					}
@@ -242,7 +266,8 @@ public class PoissonDiscProvider implements IPoissonDiscProvider {
 				slave.edgeMask(chunkXStart, chunkZStart);//Set the proper mask for whatever chunk this circle resides.
 				slave.real = slave.isInCenterChunk(chunkXStart, chunkZStart);//Only circles created in the center chunk are real
 				unsolvedDiscs.add(slave);//The new circle is necessarily unsolved and we need it in this list for the next step.
-				PoissonDiscHelper.solveDiscs(unsolvedDiscs, allDiscs);//run all of the unsolved circles again
+				solveDiscs(unsolvedDiscs, allDiscs, grid);//run all of the unsolved circles again
+				grid.add(slave, allDiscs.size());
 				allDiscs.add(slave);//add the new circle to the full list
 				if (debug != null) {
 					debug.solveDiscs(unsolvedDiscs, allDiscs);
@@ -265,7 +290,7 @@ public class PoissonDiscProvider implements IPoissonDiscProvider {
 		}
 
 		//Add circles to circle set
-		PoissonDiscChunkSet cSet = getChunkDiscSet(chunkX, chunkZ);
+		PoissonDiscChunkSet cSet = chunkDiscs.getOrCreate(chunkX, chunkZ);
 		cSet.generated = true;
 
 		for (PoissonDisc c : allDiscs) {
@@ -277,9 +302,10 @@ public class PoissonDiscProvider implements IPoissonDiscProvider {
 		return cSet.getDiscs(new ArrayList<PoissonDisc>(16), chunkX, chunkZ);
 	}
 
-	private boolean doesDiscIntersectWith(PoissonDisc disc, List<PoissonDisc> others) {
-		for (PoissonDisc other : others) {
-			if (disc.doCirclesIntersectPadding(other)) {
+	private boolean doesDiscIntersectWith(PoissonDisc disc, List<PoissonDisc> others, PoissonDiscGrid grid) {
+		int num = grid.findNear(disc.x, disc.z, INTERSECTREACH);
+		for (int n = 0; n < num; n++) {
+			if (disc.doCirclesIntersectPadding(others.get(grid.getFound()[n]))) {
 				return true;
 			}
 		}
@@ -287,33 +313,55 @@ public class PoissonDiscProvider implements IPoissonDiscProvider {
 		return false;
 	}
 
-	private PoissonDiscChunkSet getChunkDiscSet(int chunkX, int chunkZ) {
-		ChunkPos key = new ChunkPos(chunkX, chunkZ);
-		PoissonDiscChunkSet cSet;
-
-		if (chunkDiscs.containsKey(key)) {
-			cSet = chunkDiscs.get(key);
-		} else {
-			cSet = new PoissonDiscChunkSet();
-			chunkDiscs.put(key, cSet);
+	/**
+	 * Get the radius at a position from the radius grid of its chunk.  The grid holds the values of the radius
+	 * coordinator for every 4th block in both axes and is made the first time the chunk is asked for.
+	 */
+	private int getRadius(int x, int z) {
+		int[] radii = chunkDiscs.getRadiusGrid(x >> 4, z >> 4);
+		if (radii == null) {
+			radii = new int[16];
+			for (int i = 0; i < 16; i++) {
+				radii[i] = radiusCoordinator.getRadiusGridValue((x & ~15) | (i & 3) << 2, (z & ~15) | (i & 12));
+			}
+			chunkDiscs.setRadiusGrid(x >> 4, z >> 4, radii);
 		}
+		return radiusCoordinator.getRadiusFromGrid(x, z, radii[(z & 12) | (x >> 2 & 3)]);
+	}
 
-		return cSet;
+	/**
+	 * Same as {@link PoissonDiscHelper#solveDiscs(List, List)} with the discs that are too far away to mask skipped.
+	 */
+	private void solveDiscs(List<PoissonDisc> unsolved, List<PoissonDisc> allDiscs, PoissonDiscGrid grid) {
+		for (PoissonDisc u : unsolved) {
+			int num = grid.findNear(u.x, u.z, MASKREACH);
+			for (int n = 0; n < num; n++) {
+				PoissonDiscHelper.maskDiscs(u, allDiscs.get(grid.getFound()[n]));
+			}
+		}
 	}
 
 	@Override
 	public byte[] getChunkPoissonData(int chunkX, int chunkY, int chunkZ) {
-		return getChunkDiscSet(chunkX, chunkZ).getDiscData();
+		PoissonDiscChunkSet cSet = chunkDiscs.get(chunkX, chunkZ);
+		return cSet != null ? cSet.getDiscData() : new byte[16];
 	}
 
 	@Override
 	public void setChunkPoissonData(int chunkX, int chunkY, int chunkZ, byte[] circleData) {
-		getChunkDiscSet(chunkX, chunkZ).setDiscData(circleData);
+		chunkDiscs.getOrCreate(chunkX, chunkZ).setDiscData(circleData);
 	}
 
 	@Override
 	public void unloadChunkPoissonData(int chunkX, int chunkY, int chunkZ) {
-		chunkDiscs.remove(new ChunkPos(chunkX, chunkZ));
+		chunkDiscs.remove(chunkX, chunkZ);
+	}
+
+	/**
+	 * @return The cache of the chunk disc sets for statistics
+	 */
+	public PoissonDiscChunkCache getChunkCache() {
+		return chunkDiscs;
 	}
 
 	private List<PoissonDisc> getChunkPoissonDiscs(int chunkX, int chunkZ) {
@@ -321,8 +369,10 @@ public class PoissonDiscProvider implements IPoissonDiscProvider {
 	}
 
 	private List<PoissonDisc> getChunkPoissonDiscs(List<PoissonDisc> discs, int chunkX, int chunkZ) {
-		PoissonDiscChunkSet cSet = getChunkDiscSet(chunkX, chunkZ);
-		cSet.getDiscs(discs, chunkX, chunkZ);
+		PoissonDiscChunkSet cSet = chunkDiscs.get(chunkX, chunkZ);
+		if (cSet != null) {//A chunk with no set has no discs yet.  No need to make one for it
+			cSet.getDiscs(discs, chunkX, chunkZ);
+		}
 		return discs;
 	}
 
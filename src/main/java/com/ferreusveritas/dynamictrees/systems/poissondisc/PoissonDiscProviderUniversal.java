@@ -7,13 +7,14 @@ import com.ferreusveritas.dynamictrees.worldgen.TreeGenerator;
 import net.minecraft.world.World;
 import net.minecraftforge.common.MinecraftForge;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class PoissonDiscProviderUniversal {
 
-	Map<Integer, IPoissonDiscProvider> providerMap = new HashMap<>();
+	Map<Integer, IPoissonDiscProvider> providerMap = new ConcurrentHashMap<>();
 
 	protected IPoissonDiscProvider createCircleProvider(World world) {
 		BiomeRadiusCoordinator radiusCoordinator = new BiomeRadiusCoordinator(TreeGenerator.getTreeGenerator(), world);
@@ -40,6 +41,19 @@ public class PoissonDiscProviderUniversal {
 		providerMap.remove(world.provider.getDimension());
 	}
 
+	/**
+	 * @return The chunk caches of the dimensions with a {@link PoissonDiscProvider} keyed by dimension
+	 */
+	public Map<Integer, PoissonDiscChunkCache> getChunkCaches() {
+		Map<Integer, PoissonDiscChunkCache> caches = new TreeMap<>();
+		providerMap.forEach((dim, provider) -> {
+			if (provider instanceof PoissonDiscProvider) {
+				caches.put(dim, ((PoissonDiscProvider) provider).getChunkCache());
+			}
+		});
+		return caches;
+	}
+
 	public void setChunkPoissonData(World world, int chunkX, int chunkY, int chunkZ, byte[] circleData) {
 		getProvider(world).setChunkPoissonData(chunkX, chunkY, chunkZ, circleData);
 	}
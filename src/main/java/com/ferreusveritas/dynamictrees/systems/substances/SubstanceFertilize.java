@@ -21,9 +21,7 @@ public class SubstanceFertilize implements ISubstanceEffect {
 				TreeHelper.treeParticles(world, rootPos, EnumParticleTypes.VILLAGER_HAPPY, 8);
 			} else {
 				if (grow) {
-					for (int i = 0; i < pulses; i++) {
-						TreeHelper.growPulse(world, rootPos);
-					}
+					TreeHelper.growPulses(world, rootPos, pulses);
 				}
 			}
 			return Result.successful();
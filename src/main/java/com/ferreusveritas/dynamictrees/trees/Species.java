@@ -24,7 +24,12 @@ import com.ferreusveritas.dynamictrees.items.Seed;
 import com.ferreusveritas.dynamictrees.models.ModelEntityFallingTree;
 import com.ferreusveritas.dynamictrees.seasons.SeasonHelper;
 import com.ferreusveritas.dynamictrees.systems.DirtHelper;
+import com.ferreusveritas.dynamictrees.systems.AsyncTreeGrowth;
 import com.ferreusveritas.dynamictrees.systems.GrowSignal;
+import com.ferreusveritas.dynamictrees.systems.GrowthContext;
+import com.ferreusveritas.dynamictrees.systems.TreeDormancy;
+import com.ferreusveritas.dynamictrees.systems.TreeRootIndex;
+import com.ferreusveritas.dynamictrees.systems.TreeSkeletonCache;
 import com.ferreusveritas.dynamictrees.systems.dropcreators.DropCreatorLogs;
 import com.ferreusveritas.dynamictrees.systems.dropcreators.DropCreatorSeed;
 import com.ferreusveritas.dynamictrees.systems.dropcreators.DropCreatorStorage;
@@ -53,6 +58,7 @@ import net.minecraft.util.EnumHand;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.BlockPos.MutableBlockPos;
 import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.util.text.ITextComponent;
@@ -73,6 +79,7 @@ import org.apache.logging.log4j.LogManager;
 
 import javax.annotation.Nullable;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
 public class Species extends net.minecraftforge.registries.IForgeRegistryEntry.Impl<Species> {
@@ -861,25 +868,27 @@ public class Species extends net.minecraftforge.registries.IForgeRegistryEntry.I
 	 */
 	public boolean update(World world, BlockRooty rootyDirt, BlockPos rootPos, int soilLife, ITreePart treeBase, BlockPos treePos, Random random, boolean natural) {
 
-		//Analyze structure to gather all of the endpoints.  They will be useful for this entire update
-		List<BlockPos> ends = getEnds(world, treePos, treeBase);
+		try (SectionBlockAccess access = SectionBlockAccess.open(world)) {//Pin the chunks of the tree for rot and growth
+			//Gather all of the endpoints.  They will be useful for this entire update.  The structure is only analyzed if it changed since last time
+			List<BlockPos> ends = TreeSkeletonCache.get(world).getSkeleton(world, rootPos, treePos, treeBase).getEnds();
 
-		//This will prune rotted positions from the world and the end point list
-		if (handleRot(world, ends, rootPos, treePos, soilLife, SafeChunkBounds.ANY)) {
-			return false;//Last piece of tree rotted away.
-		}
+			//This will prune rotted positions from the world and the end point list
+			if (handleRot(world, ends, rootPos, treePos, soilLife, SafeChunkBounds.ANY)) {
+				return false;//Last piece of tree rotted away.
+			}
 
-		if (natural) {
-			//This will handle seed drops
-			handleVoluntaryDrops(world, ends, rootPos, treePos, soilLife);
+			if (natural) {
+				//This will handle seed drops
+				handleVoluntaryDrops(world, ends, rootPos, treePos, soilLife);
 
-			//This will handle disease chance
-			if (handleDisease(world, treeBase, treePos, random, soilLife)) {
-				return true;//Although the tree may be diseased. The tree network is still viable.
+				//This will handle disease chance
+				if (handleDisease(world, treeBase, treePos, random, soilLife)) {
+					return true;//Although the tree may be diseased. The tree network is still viable.
+				}
 			}
-		}
 
-		return grow(world, rootyDirt, rootPos, soilLife, treeBase, treePos, random, natural);
+			return grow(world, rootyDirt, rootPos, soilLife, treeBase, treePos, random, natural);
+		}
 	}
 
 	/**
@@ -910,7 +919,7 @@ public class Species extends net.minecraftforge.registries.IForgeRegistryEntry.I
 	public boolean handleRot(World world, List<BlockPos> ends, BlockPos rootPos, BlockPos treePos, int soilLife, SafeChunkBounds safeBounds) {
 
 		Iterator<BlockPos> iter = ends.iterator();//We need an iterator since we may be removing elements.
-		SimpleVoxmap leafMap = getLeavesProperties().getCellKit().getLeafCluster();
+		CompiledVoxmap leafCluster = CompiledVoxmap.of(getLeavesProperties().getCellKit().getLeafCluster());
 
 		while (iter.hasNext()) {
 			BlockPos endPos = iter.next();
@@ -921,7 +930,7 @@ public class Species extends net.minecraftforge.registries.IForgeRegistryEntry.I
 				float rotChance = rotChance(world, endPos, world.rand, radius);
 				if (branch.checkForRot(world, endPos, this, radius, world.rand, rotChance, safeBounds != SafeChunkBounds.ANY) || radius != 1) {
 					if (safeBounds != SafeChunkBounds.ANY) { //worldgen
-						TreeHelper.ageVolume(world, endPos.down((leafMap.getLenZ() - 1) / 2), (leafMap.getLenX() - 1) / 2, leafMap.getLenY(), 2, safeBounds);
+						TreeHelper.ageVolume(world, endPos, leafCluster, 2, safeBounds);
 					}
 					iter.remove();//Prune out the rotted end points so we don't spawn fruit from them.
 				}
@@ -998,28 +1007,164 @@ public class Species extends net.minecraftforge.registries.IForgeRegistryEntry.I
 	public boolean grow(World world, BlockRooty rootyDirt, BlockPos rootPos, int soilLife, ITreePart treeBase, BlockPos treePos, Random random, boolean natural) {
 
 		float growthRate = getGrowthRate(world, rootPos) * ModConfigs.treeGrowthMultiplier * ModConfigs.treeGrowthFolding;
+		boolean dormant = natural && ModConfigs.treeDormancy && !world.isRemote && TreeDormancy.get(world).skipUpdate(rootPos);//Fully grown trees only need the occasional growth signal
+		boolean async = false;
 		do {
-			if (soilLife > 0) {
+			if (soilLife > 0 && !dormant) {
 				if (growthRate > random.nextFloat()) {
-					GrowSignal signal = new GrowSignal(this, rootPos, getEnergy(world, rootPos));
-					boolean success = treeBase.growSignal(world, treePos, signal).success;
+					if (AsyncTreeGrowth.canGrow(world, treeBase, this)) {
+						AsyncTreeGrowth.get(world).submit(world, this, rootPos, treePos, getEnergy(world, rootPos));//The soil is drawn from once the growth is applied
+						async = true;
+					} else {
+						GrowthContext context = GrowthContext.get();
+						GrowSignal signal = context.obtainSignal(this, rootPos, getEnergy(world, rootPos));
+						try {
+							boolean success = treeBase.growSignal(world, treePos, signal).success;
+							soilLife = drawFromSoil(world, rootyDirt, rootPos, soilLife, success, signal.choked, random);
+						} finally {
+							context.releaseSignal(signal);
+						}
+					}
+				}
+			}
+		} while (--growthRate > 0.0f);
 
-					int soilLongevity = getSoilLongevity(world, rootPos) * (success ? 1 : 16);//Don't deplete the soil as much if the grow operation failed
+		if (async) {
+			AsyncTreeGrowth.get(world).postGrowAfter(rootPos, natural);//The features see the grown tree
+			return true;
+		}
 
-					if (soilLongevity <= 0 || random.nextInt(soilLongevity) == 0) {//1 in X(soilLongevity) chance to draw nutrients from soil
-						rootyDirt.setSoilLife(world, rootPos, soilLife - 1);//decrement soil life
-					}
+		return postGrow(world, rootPos, treePos, soilLife, natural);
+	}
+
+	/**
+	 * Draw nutrients from the soil after a growth pulse.
+	 *
+	 * @param world     The world
+	 * @param rootyDirt The {@link BlockRooty} that is supporting this tree
+	 * @param rootPos   The {@link BlockPos} of the {@link BlockRooty} type in the world
+	 * @param soilLife  The life of the soil. 0: Depleted -> 15: Full
+	 * @param success   true if the growth signal managed to grow the tree
+	 * @param choked    true if the tree could not establish the needed trunk space
+	 * @param random    A random number generator
+	 * @return The soil life to continue growing with
+	 */
+	public int drawFromSoil(World world, BlockRooty rootyDirt, BlockPos rootPos, int soilLife, boolean success, boolean choked, Random random) {
+		if (ModConfigs.treeDormancy && !world.isRemote) {
+			TreeDormancy.get(world).recordGrowth(rootPos, success);
+		}
+
+		int soilLongevity = getSoilLongevity(world, rootPos) * (success ? 1 : 16);//Don't deplete the soil as much if the grow operation failed
+
+		if (soilLongevity <= 0 || random.nextInt(soilLongevity) == 0) {//1 in X(soilLongevity) chance to draw nutrients from soil
+			rootyDirt.setSoilLife(world, rootPos, soilLife - 1);//decrement soil life
+		}
+
+		if (choked) {
+			soilLife = 0;
+			rootyDirt.setSoilLife(world, rootPos, soilLife);
+			TreeHelper.startAnalysisFromRoot(world, rootPos, new MapSignal(new NodeShrinker(this)));
+		}
+
+		return soilLife;
+	}
 
-					if (signal.choked) {
-						soilLife = 0;
-						rootyDirt.setSoilLife(world, rootPos, soilLife);
-						TreeHelper.startAnalysisFromRoot(world, rootPos, new MapSignal(new NodeShrinker(signal.getSpecies())));
+	private static final int FASTFORWARDMARGIN = 4;//The furthest a change can alter the hydration of default leaves
+
+	/**
+	 * Fast forward the growth of the tree by a number of updates.  The growth signals and the aging of the leaves around
+	 * the growth are run in a {@link BufferedBlockAccess} and the result is set in the world in one pass.  The soil is
+	 * drawn from the same as with regular updates.  Rot and post growth features are skipped so this should be followed
+	 * by at least one regular update.
+	 *
+	 * @param world     The world
+	 * @param rootyDirt The {@link BlockRooty} that is supporting this tree
+	 * @param rootPos   The {@link BlockPos} of the {@link BlockRooty} type in the world
+	 * @param treePos   The {@link BlockPos} of the base of the trunk
+	 * @param updates   The number of updates to fast forward
+	 * @param random    A random number generator
+	 * @return The number of updates that were fast forwarded.  0 if the growth left the loaded area and nothing changed
+	 */
+	public int fastForward(World world, BlockRooty rootyDirt, BlockPos rootPos, BlockPos treePos, int updates, Random random) {
+		ITreePart treeBase = TreeHelper.getTreePart(world.getBlockState(treePos));
+		int soilLife = rootyDirt.getSoilLife(world.getBlockState(rootPos), world, rootPos);
+		int startLife = soilLife;
+		float energy = getEnergy(world, rootPos);
+		float growthRate = getGrowthRate(world, rootPos) * ModConfigs.treeGrowthMultiplier * ModConfigs.treeGrowthFolding;
+		int soilLongevity = getSoilLongevity(world, rootPos);
+		boolean choked = false;
+		int done = 0;
+
+		BufferedBlockAccess buffer = new BufferedBlockAccess(world, treePos, (int) Math.ceil(energy) + FASTFORWARDMARGIN + 2);
+		try (BufferedBlockAccess access = buffer.open()) {
+			GrowthContext context = GrowthContext.get();
+			for (; done < updates && soilLife > 0 && !choked; done++) {
+				int mark = buffer.getNumWrites();
+				boolean drawn = false;
+				float rate = growthRate;
+				do {
+					if (!choked && rate > random.nextFloat()) {
+						GrowSignal signal = context.obtainSignal(this, rootPos, energy);
+						try {
+							treeBase.growSignal(world, treePos, signal);
+							choked = signal.choked;
+							if (ModConfigs.treeDormancy) {
+								TreeDormancy.get(world).recordGrowth(rootPos, signal.success);
+							}
+							int longevity = soilLongevity * (signal.success ? 1 : 16);
+							drawn |= longevity <= 0 || random.nextInt(longevity) == 0;
+						} finally {
+							context.releaseSignal(signal);
+						}
 					}
+				} while (--rate > 0.0f);
+				if (drawn) {
+					soilLife--;//Like a regular update the soil life is drawn from at most once
 				}
+				ageAroundChanges(world, buffer, access, mark, random);
 			}
-		} while (--growthRate > 0.0f);
+		} catch (IllegalStateException e) {
+			return 0;//The growth reached past the pinned chunks.  The buffer is discarded
+		}
 
-		return postGrow(world, rootPos, treePos, soilLife, natural);
+		buffer.apply();
+
+		if (ModConfigs.treeRootIndex) {
+			TreeRootIndex rootIndex = TreeRootIndex.get(world);
+			buffer.forEachWrite((pos, state) -> {
+				if (TreeHelper.isBranch(state)) {
+					rootIndex.setRoot(pos, rootPos);
+				}
+			});
+		}
+
+		if (choked) {
+			rootyDirt.setSoilLife(world, rootPos, 0);
+			TreeHelper.startAnalysisFromRoot(world, rootPos, new MapSignal(new NodeShrinker(this)));
+		} else if (soilLife != startLife) {
+			rootyDirt.setSoilLife(world, rootPos, soilLife);
+		}
+
+		return done;
+	}
+
+	/**
+	 * Age the leaves near the blocks that were changed since the mark.  Leaves further away weren't affected.
+	 */
+	private void ageAroundChanges(World world, BufferedBlockAccess buffer, IBlockAccess access, int mark, Random random) {
+		if (buffer.getNumWrites() == mark) {
+			return;
+		}
+
+		BlockBounds[] bounds = new BlockBounds[1];
+		buffer.forEachWrite(mark, (pos, state) -> bounds[0] = bounds[0] == null ? new BlockBounds(pos) : bounds[0].union(pos));
+
+		for (MutableBlockPos iPos : bounds[0].expand(FASTFORWARDMARGIN).iterate()) {
+			IBlockState blockState = access.getBlockState(iPos);
+			if (blockState.getBlock() instanceof BlockDynamicLeaves) {//Other ageables set blocks directly.  They're aged by the regular update
+				((BlockDynamicLeaves) blockState.getBlock()).age(world, iPos, blockState, random, SafeChunkBounds.ANY);
+			}
+		}
 	}
 
 	/**
@@ -1057,31 +1202,56 @@ public class Species extends net.minecraftforge.registries.IForgeRegistryEntry.I
 			return EnumFacing.UP;
 		}
 
-		int[] probMap = new int[6];//6 directions possible DUNSWE
+		int[] probMap = GrowthContext.get().getProbMap();//6 directions possible DUNSWE
 
 		//Probability taking direction into account
 		probMap[EnumFacing.UP.ordinal()] = signal.dir != EnumFacing.DOWN ? getUpProbability() : 0;//Favor up
 		probMap[signal.dir.ordinal()] += getReinfTravel(); //Favor current direction
 
 		//Create probability map for direction change
-		for (EnumFacing dir : EnumFacing.VALUES) {
-			if (!dir.equals(originDir)) {
-				BlockPos deltaPos = pos.offset(dir);
-				//Check probability for surrounding blocks
-				//Typically Air:1, Leaves:2, Branches: 2+r
-				IBlockState deltaBlockState = world.getBlockState(deltaPos);
-				probMap[dir.getIndex()] += TreeHelper.getTreePart(deltaBlockState).probabilityForBlock(deltaBlockState, world, deltaPos, branch);
+		IBlockAccess access = SectionBlockAccess.of(world);
+		if (!replacesProbabilities()) {//No point in probing neighbors whose weights will be overwritten
+			for (EnumFacing dir : EnumFacing.VALUES) {
+				if (!dir.equals(originDir)) {
+					BlockPos deltaPos = pos.offset(dir);
+					//Check probability for surrounding blocks
+					//Typically Air:1, Leaves:2, Branches: 2+r
+					IBlockState deltaBlockState = access.getBlockState(deltaPos);
+					probMap[dir.getIndex()] += TreeHelper.getTreePart(deltaBlockState).probabilityForBlock(deltaBlockState, access, deltaPos, branch);
+				}
 			}
 		}
 
 		//Do custom stuff or override probability map for various species
-		probMap = customDirectionManipulation(world, pos, branch.getRadius(world.getBlockState(pos)), signal, probMap);
+		probMap = customDirectionManipulation(world, pos, branch.getRadius(access.getBlockState(pos)), signal, probMap);
 
 		//Select a direction from the probability map
 		int choice = com.ferreusveritas.dynamictrees.util.MathHelper.selectRandomFromDistribution(signal.rand, probMap);//Select a direction from the probability map
 		return newDirectionSelected(EnumFacing.getFront(choice != -1 ? choice : 1), signal);//Default to up if things are screwy
 	}
 
+	/**
+	 * @return true if {@link #customDirectionManipulation} sets every direction of the probability map without reading
+	 * it.  Skips probing the neighbors of the branch.  Species that override the manipulation should override this too.
+	 */
+	protected boolean replacesProbabilities() {
+		return getGrowthLogicKit().replacesProbabilities() && !overridesDirectionManipulation.computeIfAbsent(getClass(), Species::overridesDirectionManipulation);
+	}
+
+	private static final Map<Class<?>, Boolean> overridesDirectionManipulation = new ConcurrentHashMap<>();
+
+	private static boolean overridesDirectionManipulation(Class<?> clazz) {
+		for (Class<?> c = clazz; c != Species.class; c = c.getSuperclass()) {
+			try {
+				c.getDeclaredMethod("customDirectionManipulation", World.class, BlockPos.class, int.class, GrowSignal.class, int[].class);
+				return true;//The kit may not have the last word
+			} catch (NoSuchMethodException e) {
+				//Keep looking up the hierarchy
+			}
+		}
+		return false;
+	}
+
 	/**
 	 * Species can override the probability map here
 	 **/
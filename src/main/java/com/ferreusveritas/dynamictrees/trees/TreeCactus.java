@@ -116,6 +116,11 @@ public class TreeCactus extends TreeFamily {
 			return probMap;
 		}
 
+		@Override
+		protected boolean replacesProbabilities() {
+			return true;
+		}
+
 		@Override
 		protected EnumFacing newDirectionSelected(EnumFacing newDir, GrowSignal signal) {
 			if (signal.isInTrunk() && newDir != EnumFacing.UP) { //Turned out of trunk
@@ -209,7 +214,7 @@ public class TreeCactus extends TreeFamily {
 
 			// Create tree
 			setFacing(facing);
-			generateFork(world, species, 0, rootPos, false);
+			generateBranches(world, species, rootPos);
 
 			// Fix branch thicknesses and map out leaf locations
 			BlockBranch branch = TreeHelper.getBranch(world.getBlockState(treePos));
@@ -0,0 +1,216 @@
+package com.ferreusveritas.dynamictrees.util;
+
+import com.ferreusveritas.dynamictrees.ModConfigs;
+import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.systems.ColumnLightCache;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldType;
+import net.minecraft.world.chunk.Chunk;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * A {@link SectionBlockAccess} that holds back the leaves and branch changes of an operation and makes them all at
+ * once when the operation is closed.
+ * <p>
+ * Setting leaves one at a time notifies the neighbors, relights and queues a client update for every block, even when
+ * the same block is changed again a moment later.  Here only the last state set at each position is kept.  When the
+ * batch is closed the changes are set in the chunks section by section, then the blocks whose light changed are
+ * relit column by column, and only then are the neighbors and clients notified.  Neighbors see the finished canopy
+ * and the client updates of a chunk go out together as one multi block change.  Changes that end up where they
+ * started are dropped entirely.
+ * <p>
+ * Reads through the access see the held back changes.  Light and sky checks see the world as it was until the batch is
+ * applied.  Changes to blocks that aren't leaves or branches go straight to the world.  Nested operations join the
+ * batch, and operations already captured by a {@link BufferedBlockAccess} stay captured.  Server thread only.
+ * Only worth it where an operation sets many blocks; a single change is cheaper set straight in the world.  Disabled
+ * with the blockWriteBatch config option, and along with the section access by the sectionBlockAccess option.
+ */
+public class BlockWriteBatch extends SectionBlockAccess {
+
+	private final LongMap<IBlockState> writes = new LongMap<>(16);//The last state set at each position
+
+	//Changes in the order they were first made
+	private long[] order = new long[16];
+	private int[] flags = new int[16];
+	private int numWrites;
+
+	//Statistics
+	private static long batches;
+	private static long applied;
+	private static long merged;
+
+	private BlockWriteBatch(World world) {
+		super(world, false);
+	}
+
+	/**
+	 * Begin an operation on the world whose leaves and branch changes are made when it's closed.  Use with
+	 * try-with-resources.
+	 *
+	 * @param world The world
+	 * @return The access for the world.  A plain {@link SectionBlockAccess} if changes can't be batched here
+	 */
+	public static SectionBlockAccess open(World world) {
+		SectionBlockAccess access = current.get();
+		if (!ModConfigs.blockWriteBatch || !ModConfigs.sectionBlockAccess || world.isRemote || world.getWorldType() == WorldType.DEBUG_ALL_BLOCK_STATES ||
+			(access != null && access.world == world && (access.isBuffered() || access instanceof BlockWriteBatch))) {
+			return SectionBlockAccess.open(world);//Join whatever is capturing the changes already
+		}
+		BlockWriteBatch batch = new BlockWriteBatch(world);
+		batch.push();
+		return batch;
+	}
+
+	@Override
+	public void close() {
+		super.close();
+		if (!isOpen()) {
+			apply();//After the close so changes made while notifying go straight to the world
+		}
+	}
+
+	@Override
+	public IBlockState getBlockState(BlockPos pos) {
+		IBlockState state = numWrites > 0 ? writes.get(pos.toLong()) : null;
+		return state != null ? state : super.getBlockState(pos);
+	}
+
+	@Override
+	protected boolean capture(BlockPos pos, IBlockState state, int flags) {
+		if (pos.getY() < 0 || pos.getY() >= 256) {
+			return false;
+		}
+		long key = pos.toLong();
+		IBlockState held = writes.get(key);
+		if (held == null && !isTreeBlock(state) && !isTreeBlock(getBlockState(pos))) {
+			return false;//Not ours to hold back
+		}
+
+		writes.put(key, state);
+		if (ModConfigs.columnLightCache) {
+			ColumnLightCache.get(world).blockChanged(pos);//The tree parts of the column are read through the batch
+		}
+		if (held == null) {
+			if (numWrites == order.length) {
+				order = Arrays.copyOf(order, numWrites * 2);
+				this.flags = Arrays.copyOf(this.flags, numWrites * 2);
+			}
+			order[numWrites] = key;
+			this.flags[numWrites++] = flags;
+		} else {
+			merged++;
+			for (int i = 0; i < numWrites; i++) {
+				if (order[i] == key) {
+					this.flags[i] |= flags;
+					break;
+				}
+			}
+		}
+		return true;
+	}
+
+	private static boolean isTreeBlock(IBlockState state) {
+		return TreeHelper.isLeaves(state) || TreeHelper.isBranch(state);
+	}
+
+	private void apply() {
+		if (numWrites == 0) {
+			return;
+		}
+
+		BlockPos[] positions = new BlockPos[numWrites];
+		Integer[] sorted = new Integer[numWrites];
+		for (int i = 0; i < numWrites; i++) {
+			positions[i] = BlockPos.fromLong(order[i]);
+			sorted[i] = i;
+		}
+
+		//Visit the changes a section at a time with the columns top down.  The sort is stable so the rest keep their order
+		Arrays.sort(sorted, Comparator.comparingInt((Integer i) -> positions[i].getX() >> 4)
+			.thenComparingInt(i -> positions[i].getZ() >> 4)
+			.thenComparingInt(i -> positions[i].getY() >> 4)
+			.thenComparingInt(i -> positions[i].getX())
+			.thenComparingInt(i -> positions[i].getZ())
+			.thenComparingInt(i -> -positions[i].getY()));
+
+		Chunk[] chunks = new Chunk[numWrites];
+		IBlockState[] oldStates = new IBlockState[numWrites];
+		IBlockState[] newStates = new IBlockState[numWrites];
+		boolean[] relight = new boolean[numWrites];
+
+		//Set the blocks in the chunks
+		Chunk chunk = null;
+		for (int i : sorted) {
+			BlockPos pos = positions[i];
+			IBlockState state = writes.get(order[i]);
+			if (chunk == null || chunk.x != pos.getX() >> 4 || chunk.z != pos.getZ() >> 4) {
+				chunk = world.getChunkFromBlockCoords(pos);
+			}
+			if (world.captureBlockSnapshots) {
+				world.setBlockState(pos, state, flags[i]);//Someone is recording block changes.  Let the world do it
+				continue;
+			}
+
+			IBlockState oldState = chunk.getBlockState(pos);
+			int oldOpacity = oldState.getLightOpacity(world, pos);
+			int oldLight = oldState.getLightValue(world, pos);
+			if (oldState == state || chunk.setBlockState(pos, state) == null) {
+				continue;
+			}
+			chunks[i] = chunk;
+			oldStates[i] = oldState;
+			newStates[i] = state;
+			relight[i] = state.getLightOpacity(world, pos) != oldOpacity || state.getLightValue(world, pos) != oldLight;
+		}
+
+		//Relight column by column
+		ColumnLightCache columns = ModConfigs.columnLightCache ? ColumnLightCache.get(world) : null;
+		for (int i : sorted) {
+			if (columns != null && newStates[i] != null) {
+				columns.blockChanged(positions[i]);//The height map may have moved
+			}
+			if (relight[i]) {
+				world.checkLight(positions[i]);
+			}
+		}
+
+		//Let the neighbors and clients know
+		for (int i = 0; i < numWrites; i++) {
+			if (newStates[i] != null) {
+				world.markAndNotifyBlock(positions[i], chunks[i], oldStates[i], newStates[i], flags[i]);
+				applied++;
+			}
+		}
+
+		batches++;
+		numWrites = 0;
+		writes.clear();
+	}
+
+	public static long getBatches() {
+		return batches;
+	}
+
+	/**
+	 * @return The number of block changes made by batches
+	 */
+	public static long getApplied() {
+		return applied;
+	}
+
+	/**
+	 * @return The number of changes that replaced one already held back at the same position
+	 */
+	public static long getMerged() {
+		return merged;
+	}
+
+	public static void resetCounters() {
+		batches = applied = merged = 0;
+	}
+
+}
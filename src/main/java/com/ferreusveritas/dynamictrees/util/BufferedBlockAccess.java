@@ -0,0 +1,255 @@
+package com.ferreusveritas.dynamictrees.util;
+
+import com.ferreusveritas.dynamictrees.blocks.BlockBranch;
+import com.ferreusveritas.dynamictrees.blocks.BlockBranch.EnumDestroyMode;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.EnumSkyBlock;
+import net.minecraft.world.World;
+import net.minecraft.world.biome.Biome;
+import net.minecraft.world.chunk.Chunk;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * A {@link SectionBlockAccess} that keeps block changes to itself so that an operation can be run away from the world,
+ * usually on another thread, and applied later.
+ * <p>
+ * The chunks around the operation are pinned when the access is created on the server thread.  Reads from anywhere
+ * else fail the operation.  Every block read is remembered with the state that was seen and every change is kept in
+ * order.  Light and height map reads are remembered the same way.  Before the changes are applied the remembered reads
+ * are compared with the world.  If anything differs the operation worked from stale data and the changes must be
+ * thrown away.
+ * <p>
+ * Nothing is passed through to the live world.  Biomes are read from the pinned chunks, solid sides and combined light
+ * are worked out from the remembered blocks and light, and tile entities can't be read at all so an operation that
+ * reads one fails and has to be run on the server thread.
+ * <p>
+ * One operation per access.  Only the creating thread may apply it.
+ */
+public class BufferedBlockAccess extends SectionBlockAccess {
+
+	private final LongMap<Chunk> pinned = new LongMap<>(16);
+	private final LongMap<IBlockState> reads = new LongMap<>(256);//The first state seen at each position
+	private final LongMap<IBlockState> writes = new LongMap<>(64);//The last state set at each position
+	private final LongMap<Integer> skyLight = new LongMap<>(16);//The light seen at each position
+	private final LongMap<Integer> blockLight = new LongMap<>(16);
+	private final LongMap<Integer> heights = new LongMap<>(16);//The height map seen at each column
+
+	//Changes in the order they were first made
+	private long[] order = new long[16];
+	private int[] flags = new int[16];
+	private int numWrites;
+
+	/**
+	 * Pin the loaded chunks around a position.  Must be called on the server thread.
+	 *
+	 * @param world  The world
+	 * @param center The center of the operation
+	 * @param radius How far from the center the operation may read or write
+	 */
+	public BufferedBlockAccess(World world, BlockPos center, int radius) {
+		super(world, false);
+		for (int cx = (center.getX() - radius) >> 4; cx <= (center.getX() + radius) >> 4; cx++) {
+			for (int cz = (center.getZ() - radius) >> 4; cz <= (center.getZ() + radius) >> 4; cz++) {
+				Chunk chunk = world.getChunkProvider().getLoadedChunk(cx, cz);
+				if (chunk != null) {
+					pinned.put(chunkKey(cx, cz), chunk);
+				}
+			}
+		}
+	}
+
+	private static long chunkKey(int chunkX, int chunkZ) {
+		return (long) chunkX & 0xFFFFFFFFL | ((long) chunkZ & 0xFFFFFFFFL) << 32;
+	}
+
+	/**
+	 * Begin capturing the operation on this thread.  Use with try-with-resources.  Operations opened on the world
+	 * inside it are captured too.
+	 */
+	public BufferedBlockAccess open() {
+		push();
+		return this;
+	}
+
+	@Override
+	protected Chunk getChunk(int chunkX, int chunkZ) {
+		Chunk chunk = pinned.get(chunkKey(chunkX, chunkZ));
+		if (chunk == null) {
+			throw new IllegalStateException("Buffered operation left its pinned chunks at " + chunkX + ", " + chunkZ);
+		}
+		return chunk;
+	}
+
+	@Override
+	public IBlockState getBlockState(BlockPos pos) {
+		long key = pos.toLong();
+		IBlockState state = writes.get(key);
+		if (state == null) {
+			state = reads.get(key);
+			if (state == null) {
+				state = super.getBlockState(pos);
+				reads.put(key, state);
+			}
+		}
+		return state;
+	}
+
+	@Override
+	protected int getLight(EnumSkyBlock type, BlockPos pos) {
+		LongMap<Integer> seen = type == EnumSkyBlock.SKY ? skyLight : blockLight;
+		long key = pos.toLong();
+		Integer light = seen.get(key);
+		if (light == null) {
+			light = super.getLight(type, pos);
+			seen.put(key, light);
+		}
+		return light;
+	}
+
+	@Override
+	protected int getHeight(int x, int z) {
+		long key = chunkKey(x, z);
+		Integer height = heights.get(key);
+		if (height == null) {
+			height = super.getHeight(x, z);
+			heights.put(key, height);
+		}
+		return height;
+	}
+
+	@Override
+	public TileEntity getTileEntity(BlockPos pos) {
+		throw new IllegalStateException("Buffered operation read the tile entity at " + pos);
+	}
+
+	@Override
+	public int getCombinedLight(BlockPos pos, int lightValue) {
+		if (pos.getY() < 0 || pos.getY() >= 256) {
+			return 15 << 20 | lightValue << 4;
+		}
+		return getLight(EnumSkyBlock.SKY, pos) << 20 | Math.max(getLight(EnumSkyBlock.BLOCK, pos), lightValue) << 4;
+	}
+
+	@Override
+	public Biome getBiome(BlockPos pos) {
+		int id = getChunk(pos.getX() >> 4, pos.getZ() >> 4).getBiomeArray()[(pos.getZ() & 15) << 4 | (pos.getX() & 15)] & 255;
+		Biome biome = id != 255 ? Biome.getBiome(id) : null;
+		if (biome == null) {
+			throw new IllegalStateException("Buffered operation read an unset biome at " + pos);
+		}
+		return biome;
+	}
+
+	@Override
+	public boolean isSideSolid(BlockPos pos, EnumFacing side, boolean _default) {
+		if (pos.getY() < 0 || pos.getY() >= 256) {
+			return _default;
+		}
+		return getBlockState(pos).isSideSolid(this, pos, side);
+	}
+
+	@Override
+	protected boolean capture(BlockPos pos, IBlockState state, int flags) {
+		getBlockState(pos);//The change depends on what was there before
+		long key = pos.toLong();
+		if (writes.put(key, state) == null) {
+			if (numWrites == order.length) {
+				order = Arrays.copyOf(order, numWrites * 2);
+				this.flags = Arrays.copyOf(this.flags, numWrites * 2);
+			}
+			order[numWrites] = key;
+			this.flags[numWrites++] = flags;
+		} else {
+			for (int i = 0; i < numWrites; i++) {
+				if (order[i] == key) {
+					this.flags[i] |= flags;
+					break;
+				}
+			}
+		}
+		return true;
+	}
+
+	@Override
+	protected boolean isBuffered() {
+		return true;
+	}
+
+	/**
+	 * @return true if every block, light and height the operation read is still the same in the world
+	 */
+	public boolean isUnchanged() {
+		boolean[] unchanged = {true};
+		reads.forEach((state, key) -> {
+			if (unchanged[0]) {
+				BlockPos pos = BlockPos.fromLong(key);
+				unchanged[0] = world.isBlockLoaded(pos) && world.getBlockState(pos) == state;
+			}
+		});
+		skyLight.forEach((light, key) -> {
+			if (unchanged[0]) {
+				BlockPos pos = BlockPos.fromLong(key);
+				unchanged[0] = world.isBlockLoaded(pos) && world.getLightFor(EnumSkyBlock.SKY, pos) == light;
+			}
+		});
+		blockLight.forEach((light, key) -> {
+			if (unchanged[0]) {
+				BlockPos pos = BlockPos.fromLong(key);
+				unchanged[0] = world.isBlockLoaded(pos) && world.getLightFor(EnumSkyBlock.BLOCK, pos) == light;
+			}
+		});
+		heights.forEach((height, key) -> {
+			if (unchanged[0]) {
+				int x = (int) key;
+				int z = (int) (key >> 32);
+				Chunk chunk = world.getChunkProvider().getLoadedChunk(x >> 4, z >> 4);
+				unchanged[0] = chunk != null && chunk.getHeightValue(x & 15, z & 15) == height;
+			}
+		});
+		return unchanged[0];
+	}
+
+	/**
+	 * Make the captured changes to the world in the order they were made.  Check {@link #isUnchanged()} first.
+	 */
+	public void apply() {
+		BlockBranch.destroyMode = EnumDestroyMode.SETRADIUS;//Same as a branch setting its own radius
+		for (int i = 0; i < numWrites; i++) {
+			world.setBlockState(BlockPos.fromLong(order[i]), writes.get(order[i]), flags[i]);
+		}
+		BlockBranch.destroyMode = EnumDestroyMode.SLOPPY;
+	}
+
+	/**
+	 * Visit every captured change in the order they were made.
+	 */
+	public void forEachWrite(BiConsumer<BlockPos, IBlockState> action) {
+		forEachWrite(0, action);
+	}
+
+	/**
+	 * Visit the captured changes to positions first changed after a number of changes.
+	 *
+	 * @param from   The number of changes to skip.  Usually {@link #getNumWrites()} taken earlier
+	 * @param action The visitor
+	 */
+	public void forEachWrite(int from, BiConsumer<BlockPos, IBlockState> action) {
+		for (int i = from; i < numWrites; i++) {
+			action.accept(BlockPos.fromLong(order[i]), writes.get(order[i]));
+		}
+	}
+
+	public int getNumReads() {
+		return reads.size();
+	}
+
+	public int getNumWrites() {
+		return numWrites;
+	}
+
+}
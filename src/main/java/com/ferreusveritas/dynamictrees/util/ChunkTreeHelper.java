@@ -16,9 +16,7 @@ import net.minecraft.world.World;
 import net.minecraft.world.chunk.Chunk;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.Optional;
-import java.util.Set;
 
 public class ChunkTreeHelper {
 
@@ -36,7 +34,7 @@ public class ChunkTreeHelper {
 			bounds.expand(dir, radius * 16);
 		}
 
-		Set<BlockPos> found = new HashSet<>();
+		LongSet found = new LongSet();
 
 		for (MutableBlockPos pos : bounds.iterate()) {
 			if (found.contains(pos)) {
@@ -0,0 +1,128 @@
+package com.ferreusveritas.dynamictrees.util;
+
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.BlockPos.MutableBlockPos;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The non-zero voxels of a {@link SimpleVoxmap} packed into one array of offsets from its center and values.  Made for
+ * leaf clusters which are stamped around every branch end.  Applying one only visits the voxels that are set instead of
+ * the whole bounding box.  The voxels are kept in the order of the map's layers(y, then z, then x) which is also the
+ * order of the maps they're applied to.
+ * <p>
+ * Each voxel is packed into an int: the x, y and z offsets in a byte each followed by the value in the lowest byte.
+ */
+public class CompiledVoxmap {
+
+	private static final Map<SimpleVoxmap, CompiledVoxmap> compiled = new ConcurrentHashMap<>();//Keyed by identity
+
+	private final int[] voxels;
+	private final int minY;
+	private final int maxY;
+
+	private CompiledVoxmap(SimpleVoxmap map) {
+		int[] packed = new int[map.getData().length];
+		int num = 0;
+		int low = 0;
+		int high = -1;
+		BlockPos center = map.getCenter();
+		int i = 0;
+		for (int y = 0; y < map.getLenY(); y++) {
+			for (int z = 0; z < map.getLenZ(); z++) {
+				for (int x = 0; x < map.getLenX(); x++) {
+					byte value = map.getData()[i++];
+					if (value != 0) {
+						int dy = y - center.getY();
+						packed[num++] = (x - center.getX()) << 24 | (dy & 0xFF) << 16 | (z - center.getZ() & 0xFF) << 8 | value & 0xFF;
+						low = num == 1 ? dy : low;
+						high = dy;
+					}
+				}
+			}
+		}
+		this.voxels = Arrays.copyOf(packed, num);
+		this.minY = low;
+		this.maxY = high;
+	}
+
+	/**
+	 * Get the compiled form of a map that doesn't change, such as a leaf cluster.  Compiled once and kept.
+	 */
+	public static CompiledVoxmap of(SimpleVoxmap map) {
+		return compiled.computeIfAbsent(map, CompiledVoxmap::new);
+	}
+
+	/**
+	 * @return The number of non-zero voxels
+	 */
+	public int size() {
+		return voxels.length;
+	}
+
+	public int getX(int index) {
+		return voxels[index] >> 24;
+	}
+
+	public int getY(int index) {
+		return (byte) (voxels[index] >> 16);
+	}
+
+	public int getZ(int index) {
+		return (byte) (voxels[index] >> 8);
+	}
+
+	public byte getValue(int index) {
+		return (byte) voxels[index];
+	}
+
+	/**
+	 * @return The lowest y offset of a non-zero voxel
+	 */
+	public int getMinY() {
+		return minY;
+	}
+
+	/**
+	 * @return The highest y offset of a non-zero voxel
+	 */
+	public int getMaxY() {
+		return maxY;
+	}
+
+	/**
+	 * Set a position to the world position of a voxel around a center.
+	 *
+	 * @return The position that was passed in
+	 */
+	public MutableBlockPos getPos(int index, BlockPos center, MutableBlockPos pos) {
+		return pos.setPos(center.getX() + getX(index), center.getY() + getY(index), center.getZ() + getZ(index));
+	}
+
+	/**
+	 * Same as {@link SimpleVoxmap#blitMax(BlockPos, SimpleVoxmap)} with the uncompiled map.
+	 */
+	public void blitMax(SimpleVoxmap dst, BlockPos pos) {
+		for (int i = 0; i < voxels.length; i++) {
+			int x = pos.getX() + getX(i);
+			int y = pos.getY() + getY(i);
+			int z = pos.getZ() + getZ(i);
+			byte value = getValue(i);
+			if (value > dst.getVoxel(x, y, z)) {
+				dst.setVoxel(x, y, z, value);
+			}
+		}
+	}
+
+	/**
+	 * Clear the voxels of another map that this one covers when applied at a position.
+	 */
+	public void blitClear(SimpleVoxmap dst, BlockPos pos) {
+		for (int i = 0; i < voxels.length; i++) {
+			dst.setVoxel(pos.getX() + getX(i), pos.getY() + getY(i), pos.getZ() + getZ(i), (byte) 0);
+		}
+	}
+
+}
@@ -0,0 +1,234 @@
+package com.ferreusveritas.dynamictrees.util;
+
+import net.minecraft.util.math.BlockPos;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * An open addressing hash map from primitive longs to objects.  The map counterpart of {@link LongSet} for keying
+ * things by {@link BlockPos#toLong()} without boxing.  Null values are not allowed.  Not thread safe at all.
+ *
+ * @param <V> The value type
+ */
+public class LongMap<V> {
+
+	private static final long EMPTY = Long.MIN_VALUE;//Marks an unused slot.  The key itself is tracked separately
+	private static final float LOAD_FACTOR = 0.5f;
+
+	private long[] keys;
+	private Object[] values;
+	private int mask;
+	private int size;
+	private int resizeAt;
+	private Object emptyKeyValue;
+
+	public LongMap() {
+		this(16);
+	}
+
+	public LongMap(int expected) {
+		allocate(arraySize(expected));
+	}
+
+	private static int arraySize(int expected) {
+		int capacity = Integer.highestOneBit(Math.max((int) (expected / LOAD_FACTOR), 4) - 1) << 1;
+		return Math.max(capacity, 8);
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		values = new Object[capacity];
+		Arrays.fill(keys, EMPTY);
+		mask = capacity - 1;
+		resizeAt = (int) (capacity * LOAD_FACTOR);
+	}
+
+	/**
+	 * Finalizer step of MurmurHash3.  Same as {@link LongSet}.
+	 */
+	private static int mix(long key) {
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		key *= 0xc4ceb9fe1a85ec53L;
+		key ^= key >>> 33;
+		return (int) key;
+	}
+
+	private int find(long key) {
+		int slot = mix(key) & mask;
+		long existing;
+		while ((existing = keys[slot]) != EMPTY) {
+			if (existing == key) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	@SuppressWarnings("unchecked")
+	public V get(long key) {
+		if (key == EMPTY) {
+			return (V) emptyKeyValue;
+		}
+		int slot = find(key);
+		return slot >= 0 ? (V) values[slot] : null;
+	}
+
+	public V get(BlockPos pos) {
+		return get(pos.toLong());
+	}
+
+	public boolean containsKey(long key) {
+		return get(key) != null;
+	}
+
+	/**
+	 * @param key   The key
+	 * @param value The value.  Must not be null
+	 * @return The value previously mapped to the key or null if there wasn't one
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(long key, V value) {
+		if (key == EMPTY) {
+			V old = (V) emptyKeyValue;
+			if (old == null) {
+				size++;
+			}
+			emptyKeyValue = value;
+			return old;
+		}
+
+		int slot = mix(key) & mask;
+		long existing;
+		while ((existing = keys[slot]) != EMPTY) {
+			if (existing == key) {
+				V old = (V) values[slot];
+				values[slot] = value;
+				return old;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		keys[slot] = key;
+		values[slot] = value;
+		if (++size >= resizeAt) {
+			rehash(keys.length << 1);
+		}
+		return null;
+	}
+
+	public V put(BlockPos pos, V value) {
+		return put(pos.toLong(), value);
+	}
+
+	/**
+	 * @return The value that was removed or null if the key wasn't mapped
+	 */
+	@SuppressWarnings("unchecked")
+	public V remove(long key) {
+		if (key == EMPTY) {
+			V old = (V) emptyKeyValue;
+			if (old != null) {
+				emptyKeyValue = null;
+				size--;
+			}
+			return old;
+		}
+
+		int slot = find(key);
+		if (slot < 0) {
+			return null;
+		}
+
+		V old = (V) values[slot];
+		size--;
+
+		//Shift the following entries of the probe chain back so lookups don't stop short at the hole
+		int hole = slot;
+		int next = (hole + 1) & mask;
+		long nextKey;
+		while ((nextKey = keys[next]) != EMPTY) {
+			int home = mix(nextKey) & mask;
+			if (((next - home) & mask) >= ((next - hole) & mask)) {
+				keys[hole] = nextKey;
+				values[hole] = values[next];
+				hole = next;
+			}
+			next = (next + 1) & mask;
+		}
+		keys[hole] = EMPTY;
+		values[hole] = null;
+
+		return old;
+	}
+
+	private void rehash(int capacity) {
+		long[] oldKeys = keys;
+		Object[] oldValues = values;
+		allocate(capacity);
+		for (int i = 0; i < oldKeys.length; i++) {
+			long key = oldKeys[i];
+			if (key != EMPTY) {
+				int slot = mix(key) & mask;
+				while (keys[slot] != EMPTY) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = key;
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+
+	/**
+	 * Visit every value.  The map must not be modified while this runs.
+	 */
+	@SuppressWarnings("unchecked")
+	public void forEachValue(Consumer<? super V> action) {
+		if (emptyKeyValue != null) {
+			action.accept((V) emptyKeyValue);
+		}
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != EMPTY) {
+				action.accept((V) values[i]);
+			}
+		}
+	}
+
+	/**
+	 * Visit every entry.  The map must not be modified while this runs.
+	 */
+	@SuppressWarnings("unchecked")
+	public void forEach(ObjLongConsumer<? super V> action) {
+		if (emptyKeyValue != null) {
+			action.accept((V) emptyKeyValue, EMPTY);
+		}
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != EMPTY) {
+				action.accept((V) values[i], keys[i]);
+			}
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Empties the map while keeping the allocated table for reuse.
+	 */
+	public void clear() {
+		Arrays.fill(keys, EMPTY);
+		Arrays.fill(values, null);
+		emptyKeyValue = null;
+		size = 0;
+	}
+
+}
@@ -0,0 +1,75 @@
+package com.ferreusveritas.dynamictrees.util;
+
+import java.util.function.LongPredicate;
+
+/**
+ * A first in first out ring buffer of primitive longs.  Made for queueing {@link net.minecraft.util.math.BlockPos#toLong()}
+ * values without boxing.  Grows as needed.  Not thread safe at all.
+ */
+public class LongQueue {
+
+	private long[] elements;
+	private int head;
+	private int size;
+
+	public LongQueue() {
+		this(16);
+	}
+
+	public LongQueue(int expected) {
+		elements = new long[Integer.highestOneBit(Math.max(expected, 2) - 1) << 1];
+	}
+
+	public void offer(long value) {
+		if (size == elements.length) {
+			long[] grown = new long[elements.length * 2];
+			for (int i = 0; i < size; i++) {
+				grown[i] = elements[(head + i) & (elements.length - 1)];
+			}
+			elements = grown;
+			head = 0;
+		}
+		elements[(head + size++) & (elements.length - 1)] = value;
+	}
+
+	/**
+	 * Take the value at the front of the queue.  Check {@link #isEmpty()} first.
+	 */
+	public long poll() {
+		long value = elements[head];
+		head = (head + 1) & (elements.length - 1);
+		size--;
+		return value;
+	}
+
+	/**
+	 * Remove every value that matches while keeping the order of the rest.
+	 *
+	 * @return The number of values removed
+	 */
+	public int removeIf(LongPredicate filter) {
+		int removed = 0;
+		for (int i = size; i > 0; i--) {//Cycle through the whole queue once
+			long value = poll();
+			if (filter.test(value)) {
+				removed++;
+			} else {
+				offer(value);
+			}
+		}
+		return removed;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		head = size = 0;
+	}
+
+}
@@ -0,0 +1,217 @@
+package com.ferreusveritas.dynamictrees.util;
+
+import net.minecraft.util.math.BlockPos;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * An open addressing hash set of primitive longs.  Made for holding {@link BlockPos#toLong()} values so that position
+ * tracking doesn't box a {@link BlockPos} for every entry.  Not thread safe at all.
+ */
+public class LongSet {
+
+	private static final long EMPTY = Long.MIN_VALUE;//Marks an unused slot.  The key itself is tracked separately
+	private static final float LOAD_FACTOR = 0.5f;
+
+	private long[] keys;
+	private int mask;
+	private int size;
+	private int resizeAt;
+	private boolean hasEmptyKey;
+
+	public LongSet() {
+		this(16);
+	}
+
+	public LongSet(int expected) {
+		allocate(arraySize(expected));
+	}
+
+	private static int arraySize(int expected) {
+		int capacity = Integer.highestOneBit(Math.max((int) (expected / LOAD_FACTOR), 4) - 1) << 1;
+		return Math.max(capacity, 8);
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		Arrays.fill(keys, EMPTY);
+		mask = capacity - 1;
+		resizeAt = (int) (capacity * LOAD_FACTOR);
+	}
+
+	/**
+	 * Finalizer step of MurmurHash3.  Packed block positions are very poorly distributed in their lower bits.
+	 */
+	private static int mix(long key) {
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		key *= 0xc4ceb9fe1a85ec53L;
+		key ^= key >>> 33;
+		return (int) key;
+	}
+
+	public boolean add(BlockPos pos) {
+		return add(pos.toLong());
+	}
+
+	/**
+	 * @param key The value to add
+	 * @return true if the value was not already in the set
+	 */
+	public boolean add(long key) {
+		if (key == EMPTY) {
+			if (hasEmptyKey) {
+				return false;
+			}
+			hasEmptyKey = true;
+			size++;
+			return true;
+		}
+
+		int slot = mix(key) & mask;
+		long existing;
+		while ((existing = keys[slot]) != EMPTY) {
+			if (existing == key) {
+				return false;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		keys[slot] = key;
+		if (++size >= resizeAt) {
+			rehash(keys.length << 1);
+		}
+		return true;
+	}
+
+	public boolean contains(BlockPos pos) {
+		return contains(pos.toLong());
+	}
+
+	public boolean contains(long key) {
+		if (key == EMPTY) {
+			return hasEmptyKey;
+		}
+
+		int slot = mix(key) & mask;
+		long existing;
+		while ((existing = keys[slot]) != EMPTY) {
+			if (existing == key) {
+				return true;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		return false;
+	}
+
+	public boolean remove(BlockPos pos) {
+		return remove(pos.toLong());
+	}
+
+	/**
+	 * @param key The value to remove
+	 * @return true if the value was in the set
+	 */
+	public boolean remove(long key) {
+		if (key == EMPTY) {
+			if (!hasEmptyKey) {
+				return false;
+			}
+			hasEmptyKey = false;
+			size--;
+			return true;
+		}
+
+		int slot = mix(key) & mask;
+		long existing;
+		while ((existing = keys[slot]) != key) {
+			if (existing == EMPTY) {
+				return false;
+			}
+			slot = (slot + 1) & mask;
+		}
+		size--;
+
+		//Shift the following entries of the probe chain back so lookups don't stop short at the hole
+		int hole = slot;
+		int next = (hole + 1) & mask;
+		long nextKey;
+		while ((nextKey = keys[next]) != EMPTY) {
+			int home = mix(nextKey) & mask;
+			if (((next - home) & mask) >= ((next - hole) & mask)) {
+				keys[hole] = nextKey;
+				hole = next;
+			}
+			next = (next + 1) & mask;
+		}
+		keys[hole] = EMPTY;
+
+		return true;
+	}
+
+	private void rehash(int capacity) {
+		long[] oldKeys = keys;
+		allocate(capacity);
+		for (long key : oldKeys) {
+			if (key != EMPTY) {
+				int slot = mix(key) & mask;
+				while (keys[slot] != EMPTY) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = key;
+			}
+		}
+	}
+
+	/**
+	 * Visit every value.  The set must not be modified while this runs.
+	 */
+	public void forEach(LongConsumer action) {
+		if (hasEmptyKey) {
+			action.accept(EMPTY);
+		}
+		for (long key : keys) {
+			if (key != EMPTY) {
+				action.accept(key);
+			}
+		}
+	}
+
+	/**
+	 * @return A copy of the values in no particular order.  Safe to iterate while the set is modified.
+	 */
+	public long[] toArray() {
+		long[] values = new long[size];
+		int i = 0;
+		if (hasEmptyKey) {
+			values[i++] = EMPTY;
+		}
+		for (long key : keys) {
+			if (key != EMPTY) {
+				values[i++] = key;
+			}
+		}
+		return values;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Empties the set while keeping the allocated table for reuse.
+	 */
+	public void clear() {
+		Arrays.fill(keys, EMPTY);
+		hasEmptyKey = false;
+		size = 0;
+	}
+
+}
@@ -0,0 +1,42 @@
+package com.ferreusveritas.dynamictrees.util;
+
+import java.util.Random;
+
+/**
+ * A xorshift64* generator behind the {@link Random} interface.  Much cheaper than {@link Random} since there's no
+ * atomic seed update on every call and good enough for picking growth directions.  Seedable for repeatable results.
+ * Not thread safe at all.
+ */
+public class RandomXorShift extends Random {
+
+	private static final long serialVersionUID = 4925014773423519421L;
+
+	private long state;//Not initialized here since the super constructor seeds the generator first
+
+	public RandomXorShift() {
+	}
+
+	public RandomXorShift(long seed) {
+		super(seed);
+	}
+
+	@Override
+	public void setSeed(long seed) {
+		super.setSeed(seed);//Clears the stored gaussian
+		seed ^= seed >>> 33;//Scramble so that similar seeds don't start out similar
+		seed *= 0xff51afd7ed558ccdL;
+		seed ^= seed >>> 33;
+		state = seed != 0 ? seed : 0x9E3779B97F4A7C15L;//An all zero state would only ever produce zeros
+	}
+
+	@Override
+	protected int next(int bits) {
+		long x = state;
+		x ^= x >>> 12;
+		x ^= x << 25;
+		x ^= x >>> 27;
+		state = x;
+		return (int) ((x * 0x2545F4914F6CDD1DL) >>> (64 - bits));
+	}
+
+}
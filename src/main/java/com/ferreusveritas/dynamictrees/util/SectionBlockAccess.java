@@ -0,0 +1,286 @@
+package com.ferreusveritas.dynamictrees.util;
+
+import com.ferreusveritas.dynamictrees.ModConfigs;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.EnumSkyBlock;
+import net.minecraft.world.IBlockAccess;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldType;
+import net.minecraft.world.biome.Biome;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+import org.apache.logging.log4j.LogManager;
+
+import javax.annotation.Nullable;
+
+/**
+ * A block access that pins the {@link ExtendedBlockStorage} sections of the chunks it reads from so that repeated
+ * reads around a tree skip the world's chunk lookup.  The sections are read live so blocks set in the world during the
+ * operation are seen right away.  Everything other than block states is passed through to the world.
+ * <p>
+ * Opened for the duration of one operation(growth, rot, leaf aging, destruction) with {@link #open(World)}.  Code
+ * that runs inside the operation picks it up with {@link #of(World)} and gets the plain world otherwise.  Opens can be
+ * nested and only the outermost close releases the sections.  One per thread.
+ * <p>
+ * With the verifyBlockAccess debug config option every read is checked against the world.  Disabled entirely with the
+ * sectionBlockAccess config option.
+ * <p>
+ * Growth code writes and reads sky light through the static helpers here so that a {@link BufferedBlockAccess} can
+ * capture the whole operation when it's run away from the world.
+ */
+public class SectionBlockAccess implements IBlockAccess, AutoCloseable {
+
+	protected static final ThreadLocal<SectionBlockAccess> current = new ThreadLocal<>();
+	private static final int SLOTS = 8;//Trees rarely cover more than a few chunks
+
+	protected final World world;
+	private final boolean verify;
+	private final boolean debugWorld;//The debug world type makes up its block states
+	private final long[] chunkKeys = new long[SLOTS];
+	private final Chunk[] chunks = new Chunk[SLOTS];
+	private int numChunks;
+	private int nextSlot;
+	private int lastSlot;
+	private int depth;
+	private SectionBlockAccess previous;//The access this one was pushed over
+
+	private SectionBlockAccess(World world) {
+		this(world, ModConfigs.verifyBlockAccess);
+	}
+
+	protected SectionBlockAccess(World world, boolean verify) {
+		this.world = world;
+		this.verify = verify;
+		this.debugWorld = world.getWorldType() == WorldType.DEBUG_ALL_BLOCK_STATES;
+	}
+
+	/**
+	 * Begin an operation on the world.  Use with try-with-resources.
+	 *
+	 * @param world The world
+	 * @return The access for the world
+	 */
+	public static SectionBlockAccess open(World world) {
+		SectionBlockAccess access = current.get();
+		if (!ModConfigs.sectionBlockAccess) {
+			access = new SectionBlockAccess(world);//Still usable but never handed out by of(World)
+		} else if (access == null) {
+			access = new SectionBlockAccess(world);
+			current.set(access);
+		} else if (access.world != world) {
+			access = new SectionBlockAccess(world);//Operation nested in an operation on another world.  Not shared
+		}
+		access.depth++;
+		return access;
+	}
+
+	/**
+	 * @return The access for the operation in progress on the world or the world itself if there isn't one
+	 */
+	public static IBlockAccess of(World world) {
+		SectionBlockAccess access = current.get();
+		return access != null && access.world == world ? access : world;
+	}
+
+	/**
+	 * Hand this access out on this thread until it's closed.  Operations opened in the meantime are nested in it.
+	 */
+	protected void push() {
+		if (depth++ == 0) {
+			previous = current.get();
+			current.set(this);
+		}
+	}
+
+	@Override
+	public void close() {
+		if (--depth <= 0 && current.get() == this) {
+			if (previous != null) {
+				current.set(previous);
+				previous = null;
+			} else {
+				current.remove();
+			}
+		}
+	}
+
+	/**
+	 * @return true until the outermost open of this access is closed
+	 */
+	protected boolean isOpen() {
+		return depth > 0;
+	}
+
+	public World getWorld() {
+		return world;
+	}
+
+	/**
+	 * Set a block as part of the operation in progress on the world.  Goes straight to the world unless the operation
+	 * is being captured by a {@link BufferedBlockAccess}.
+	 */
+	public static boolean setBlockState(World world, BlockPos pos, IBlockState state, int flags) {
+		SectionBlockAccess access = current.get();
+		if (access != null && access.world == world && access.capture(pos, state, flags)) {
+			return true;
+		}
+		return world.setBlockState(pos, state, flags);
+	}
+
+	/**
+	 * @return true if block changes made to the world on this thread are being captured instead of applied
+	 */
+	public static boolean isBuffered(World world) {
+		SectionBlockAccess access = current.get();
+		return access != null && access.world == world && access.isBuffered();
+	}
+
+	/**
+	 * Same as {@link World#canBlockSeeSky(BlockPos)}
+	 */
+	public static boolean canBlockSeeSky(World world, BlockPos pos) {
+		SectionBlockAccess access = current.get();
+		if (access == null || access.world != world) {
+			return world.canBlockSeeSky(pos);
+		}
+
+		if (pos.getY() >= world.getSeaLevel()) {
+			return pos.getY() >= access.getHeight(pos.getX(), pos.getZ());
+		}
+
+		if (world.getSeaLevel() < access.getHeight(pos.getX(), pos.getZ())) {
+			return false;
+		}
+
+		BlockPos seaPos = new BlockPos(pos.getX(), world.getSeaLevel(), pos.getZ());
+
+		for (BlockPos below = seaPos.down(); below.getY() > pos.getY(); below = below.down()) {
+			IBlockState state = access.getBlockState(below);
+			if (state.getLightOpacity(access, below) > 0 && !state.getMaterial().isLiquid()) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	public static int getLightFor(World world, EnumSkyBlock type, BlockPos pos) {
+		SectionBlockAccess access = current.get();
+		if (access != null && access.world == world && pos.getY() >= 0 && pos.getY() < 256) {
+			return access.getLight(type, pos);
+		}
+		return world.getLightFor(type, pos);
+	}
+
+	/**
+	 * @return The light of a type at a position in the world.  Between 0 and 256 only
+	 */
+	protected int getLight(EnumSkyBlock type, BlockPos pos) {
+		return getChunk(pos.getX() >> 4, pos.getZ() >> 4).getLightFor(type, pos);
+	}
+
+	/**
+	 * @return The height map of the chunk at a column.  The lowest block that can see the sky
+	 */
+	protected int getHeight(int x, int z) {
+		return getChunk(x >> 4, z >> 4).getHeightValue(x & 15, z & 15);
+	}
+
+	/**
+	 * @return true if the change was captured.  false to have it applied to the world.
+	 */
+	protected boolean capture(BlockPos pos, IBlockState state, int flags) {
+		return false;
+	}
+
+	protected boolean isBuffered() {
+		return false;
+	}
+
+	protected Chunk getChunk(int chunkX, int chunkZ) {
+		long key = (long) chunkX & 0xFFFFFFFFL | ((long) chunkZ & 0xFFFFFFFFL) << 32;
+
+		if (numChunks > 0 && chunkKeys[lastSlot] == key) {
+			return chunks[lastSlot];
+		}
+
+		for (int i = 0; i < numChunks; i++) {
+			if (chunkKeys[i] == key) {
+				lastSlot = i;
+				return chunks[i];
+			}
+		}
+
+		int slot = nextSlot;
+		nextSlot = (nextSlot + 1) % SLOTS;
+		numChunks = Math.min(numChunks + 1, SLOTS);
+
+		chunkKeys[slot] = key;
+		chunks[slot] = world.getChunkFromChunkCoords(chunkX, chunkZ);
+		lastSlot = slot;
+		return chunks[slot];
+	}
+
+	@Override
+	public IBlockState getBlockState(BlockPos pos) {
+		int y = pos.getY();
+		if (y < 0 || y >= 256 || debugWorld) {
+			return world.getBlockState(pos);
+		}
+
+		ExtendedBlockStorage section = getChunk(pos.getX() >> 4, pos.getZ() >> 4).getBlockStorageArray()[y >> 4];
+		IBlockState state = section != null ? section.get(pos.getX() & 15, y & 15, pos.getZ() & 15) : Blocks.AIR.getDefaultState();
+
+		if (verify) {
+			IBlockState real = world.getBlockState(pos);
+			if (real != state) {
+				LogManager.getLogger().warn("Section block access read {} at {} but the world has {}", state, pos, real);
+				return real;
+			}
+		}
+
+		return state;
+	}
+
+	@Override
+	public boolean isAirBlock(BlockPos pos) {
+		IBlockState state = getBlockState(pos);
+		return state.getBlock().isAir(state, this, pos);
+	}
+
+	@Nullable
+	@Override
+	public TileEntity getTileEntity(BlockPos pos) {
+		return world.getTileEntity(pos);
+	}
+
+	@Override
+	public int getCombinedLight(BlockPos pos, int lightValue) {
+		return world.getCombinedLight(pos, lightValue);
+	}
+
+	@Override
+	public Biome getBiome(BlockPos pos) {
+		return world.getBiome(pos);
+	}
+
+	@Override
+	public int getStrongPower(BlockPos pos, EnumFacing direction) {
+		return world.getStrongPower(pos, direction);
+	}
+
+	@Override
+	public WorldType getWorldType() {
+		return world.getWorldType();
+	}
+
+	@Override
+	public boolean isSideSolid(BlockPos pos, EnumFacing side, boolean _default) {
+		return world.isSideSolid(pos, side, _default);
+	}
+
+}
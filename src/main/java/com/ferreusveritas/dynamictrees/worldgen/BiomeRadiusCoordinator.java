@@ -17,6 +17,7 @@ public class BiomeRadiusCoordinator implements IRadiusCoordinator {
 	protected final World world;
 	protected int pass;
 	protected Function<Integer, Integer> chunkMultipass;
+	protected final Random densityRandom = new Random();//Reseeded for every point so the grid doesn't depend on what else used the world random
 
 	public BiomeRadiusCoordinator(TreeGenerator treeGenerator, World world) {
 		noiseGenerator = new NoiseGeneratorPerlin(new Random(96), 1);
@@ -32,11 +33,36 @@ public class BiomeRadiusCoordinator implements IRadiusCoordinator {
 			return rad;
 		}
 
+		return getRadiusFromGrid(x, z, getRadiusGridValue(x, z));
+	}
+
+	/**
+	 * The size from the biome density and the noise map.  Both change little from one block to the next.  The density
+	 * selectors are given a random seeded from the world seed and the point so the same point always gets the same
+	 * size.
+	 */
+	@Override
+	public int getRadiusGridValue(int x, int z) {
 		double scale = 128;//Effectively scales up the noisemap
 		Biome biome = world.getBiome(new BlockPos(x + 8, 0, z + 8));//Placement is offset by +8,+8
 		double noiseDensity = (noiseGenerator.getValue(x / scale, z / scale) + 1D) / 2.0D;//Gives 0.0 to 1.0
-		double density = treeGenerator.getBiomeDataBase(world).getDensity(biome).getDensity(world.rand, noiseDensity);
+		double density = treeGenerator.getBiomeDataBase(world).getDensity(biome).getDensity(getDensityRandom(x, z), noiseDensity);
 		double size = ((1.0 - density) * 9);//Size is the inverse of density(Gives 0 to 9)
+		return (int) size;
+	}
+
+	protected Random getDensityRandom(int x, int z) {
+		densityRandom.setSeed(world.getSeed() ^ (x * 341873128712L + z * 132897987541L));
+		return densityRandom;
+	}
+
+	@Override
+	public int getRadiusFromGrid(int x, int z, int gridValue) {
+
+		int rad = chunkMultipass.apply(pass);
+		if (rad >= 2 && rad <= 8) {
+			return rad;
+		}
 
 		//Oh Joy. Random can potentially start with the same number for each chunk. Let's just 
 		//throw this large prime xor hack in there to get it to at least look like it's random.
@@ -44,7 +70,7 @@ public class BiomeRadiusCoordinator implements IRadiusCoordinator {
 		int shakelow = (kindaRandom & 0x3) % 3;//Produces 0,0,1 or 2
 		int shakehigh = (kindaRandom & 0xc) % 3;//Produces 0,0,1 or 2
 
-		return MathHelper.clamp((int) size, 2 + shakelow, 8 - shakehigh);//Clamp to tree volume radius range
+		return MathHelper.clamp(gridValue, 2 + shakelow, 8 - shakehigh);//Clamp to tree volume radius range
 	}
 
 	@Override
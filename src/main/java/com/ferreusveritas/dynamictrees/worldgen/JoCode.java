@@ -2,6 +2,7 @@ package com.ferreusveritas.dynamictrees.worldgen;
 
 import com.ferreusveritas.dynamictrees.DynamicTrees;
 import com.ferreusveritas.dynamictrees.ModBlocks;
+import com.ferreusveritas.dynamictrees.ModConfigs;
 import com.ferreusveritas.dynamictrees.api.TreeHelper;
 import com.ferreusveritas.dynamictrees.api.network.INodeInspector;
 import com.ferreusveritas.dynamictrees.api.network.MapSignal;
@@ -17,7 +18,11 @@ import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeCollector;
 import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeFindEnds;
 import com.ferreusveritas.dynamictrees.trees.Species;
 import com.ferreusveritas.dynamictrees.trees.TreeFamily;
+import com.ferreusveritas.dynamictrees.util.BlockWriteBatch;
+import com.ferreusveritas.dynamictrees.util.CompiledVoxmap;
+import com.ferreusveritas.dynamictrees.util.LongSet;
 import com.ferreusveritas.dynamictrees.util.SafeChunkBounds;
+import com.ferreusveritas.dynamictrees.util.SectionBlockAccess;
 import com.ferreusveritas.dynamictrees.util.SimpleVoxmap;
 import com.ferreusveritas.dynamictrees.util.SimpleVoxmap.Cell;
 import net.minecraft.block.Block;
@@ -49,6 +54,11 @@ public class JoCode {
 
 	public static boolean secondChanceRegen = false;//Ensures second chance regen doesn't recurse too far
 
+	/**
+	 * The branch instructions.  The branch placement compiled from them is only thrown away when this is set to a new
+	 * array or the code is rotated with {@link #rotate(EnumFacing)}.  Changing the array in place any other way leaves
+	 * generation placing the old branches.
+	 */
 	public byte[] instructions = new byte[0];
 	protected boolean careful = false;//If true the code checks for surrounding branches while building to avoid making frankentrees.  Safer but slower.
 
@@ -104,6 +114,11 @@ public class JoCode {
 	//"Pointers" to the current rotation direction.
 	private byte[] facingMap = dirmap[2];//Default to NORTH(Effectively an identity matrix)
 	private byte[] unfacingMap = dirmap[2];//Default to NORTH(Effectively an identity matrix)
+	private int facingNum = 2;
+
+	//The branch placement compiled for each facing from the instructions they were compiled from
+	private final BranchProgram[] programs = new BranchProgram[6];
+	private byte[] compiledFrom;
 
 	/**
 	 * Get the instruction at a locus. Automatically performs rotation based on what facing matrix is selected.
@@ -123,6 +138,7 @@ public class JoCode {
 	 */
 	public JoCode setFacing(EnumFacing facing) {
 		int faceNum = facing.ordinal();
+		facingNum = faceNum;
 		facingMap = dirmap[faceNum];
 		faceNum = (faceNum == 4) ? 5 : (faceNum == 5) ? 4 : faceNum;//Swap West and East
 		unfacingMap = dirmap[faceNum];
@@ -140,9 +156,25 @@ public class JoCode {
 		for (int c = 0; c < instructions.length; c++) {
 			instructions[c] = facingMap[instructions[c]];
 		}
+		compiledFrom = null;//The instructions changed in place
 		return this;
 	}
 
+	/**
+	 * Get the branch placement of the instructions for a facing.  Compiled the first time it's needed.
+	 */
+	protected BranchProgram getProgram(int faceNum) {
+		if (compiledFrom != instructions) {
+			Arrays.fill(programs, null);
+			compiledFrom = instructions;
+		}
+		BranchProgram program = programs[faceNum];
+		if (program == null) {
+			program = programs[faceNum] = new BranchProgram(instructions, dirmap[(faceNum == 4) ? 5 : (faceNum == 5) ? 4 : faceNum]);
+		}
+		return program;
+	}
+
 	/**
 	 * Generate a tree from a JoCode instruction list.
 	 *
@@ -168,7 +200,7 @@ public class JoCode {
 			species.placeRootyDirtBlock(world, rootPos, 0);//Set to unfertilized rooty dirt
 
 			//Make the tree branch structure
-			generateFork(world, species, 0, rootPos, false);
+			generateBranches(world, species, rootPos);
 
 			// Establish a position for the bottom block of the trunk
 			BlockPos treePos = rootPos.up();
@@ -204,31 +236,13 @@ public class JoCode {
 
 				smother(leafMap, leavesProperties);//Use the voxmap to precompute leaf smothering so we don't have to age it as many times.
 
-				//Place Growing Leaves Blocks from voxmap
-				for (Cell cell : leafMap.getAllNonZeroCells((byte) 0x0F)) {//Iterate through all of the cells that are leaves(not air or branches)
-					MutableBlockPos cellPos = cell.getPos();
-					if (safeBounds.inBounds(cellPos, false)) {
-						IBlockState testBlockState = world.getBlockState(cellPos);
-						Block testBlock = testBlockState.getBlock();
-						if (testBlock.isReplaceable(world, cellPos)) {
-							world.setBlockState(cellPos, leavesProperties.getDynamicLeavesState(cell.getValue()), worldGen ? 16 : 2);//Flag 16 to prevent observers from causing cascading lag
-						}
-					} else {
-						leafMap.setVoxel(cellPos, (byte) 0);
+				//Settle the leaves in the voxmap and only place the final ones.  Flag 16 to prevent observers from causing cascading lag
+				try (SectionBlockAccess access = BlockWriteBatch.open(world)) {//The canopy is set in one go
+					if (!ModConfigs.worldGenLeafSolver || LeafSolver.solve(world, leafMap, leavesProperties, safeBounds, worldGen ? 16 : 2) < 0) {
+						placeAndAgeLeaves(world, species, leafMap, leavesProperties, safeBounds, worldGen);
 					}
 				}
 
-				//Shrink the leafMap down by the safeBounds object so that the aging process won't look for neighbors outside of the bounds.
-				for (Cell cell : leafMap.getAllNonZeroCells()) {
-					MutableBlockPos cellPos = cell.getPos();
-					if (!safeBounds.inBounds(cellPos, true)) {
-						leafMap.setVoxel(cellPos, (byte) 0);
-					}
-				}
-
-				//Age volume for 3 cycles using a leafmap
-				TreeHelper.ageVolume(world, leafMap, species.getWorldGenAgeIterations(), safeBounds);
-
 				//Rot the unsupported branches
 				if (species.handleRot(world, endPoints, rootPos, treePos, 0, safeBounds)) {
 					return;//The entire tree rotted away before it had a chance
@@ -247,18 +261,49 @@ public class JoCode {
 		}
 	}
 
+	/**
+	 * Place the leaves of the voxmap in the world and age them there.
+	 */
+	protected void placeAndAgeLeaves(World world, Species species, SimpleVoxmap leafMap, ILeavesProperties leavesProperties, SafeChunkBounds safeBounds, boolean worldGen) {
+		//Place Growing Leaves Blocks from voxmap
+		for (Cell cell : leafMap.getAllNonZeroCells((byte) 0x0F)) {//Iterate through all of the cells that are leaves(not air or branches)
+			MutableBlockPos cellPos = cell.getPos();
+			if (safeBounds.inBounds(cellPos, false)) {
+				IBlockState testBlockState = world.getBlockState(cellPos);
+				Block testBlock = testBlockState.getBlock();
+				if (testBlock.isReplaceable(world, cellPos)) {
+					SectionBlockAccess.setBlockState(world, cellPos, leavesProperties.getDynamicLeavesState(cell.getValue()), worldGen ? 16 : 2);//Flag 16 to prevent observers from causing cascading lag
+				}
+			} else {
+				leafMap.setVoxel(cellPos, (byte) 0);
+			}
+		}
+
+		//Shrink the leafMap down by the safeBounds object so that the aging process won't look for neighbors outside of the bounds.
+		for (Cell cell : leafMap.getAllNonZeroCells()) {
+			MutableBlockPos cellPos = cell.getPos();
+			if (!safeBounds.inBounds(cellPos, true)) {
+				leafMap.setVoxel(cellPos, (byte) 0);
+			}
+		}
+
+		//Age volume for 3 cycles using a leafmap
+		TreeHelper.ageVolume(world, leafMap, species.getWorldGenAgeIterations(), safeBounds);
+	}
+
 	/**
 	 * Attempt to clean up fused trees that have multiple root blocks by simply destroying them both messily
 	 */
 	protected void cleanupFrankentree(World world, BlockPos treePos, IBlockState treeState, List<BlockPos> endPoints, SafeChunkBounds safeBounds) {
-		Set<BlockPos> blocksToDestroy = new HashSet<>();
+		LongSet blocksToDestroy = new LongSet(256);
 		BlockBranch branch = TreeHelper.getBranch(treeState);
 		MapSignal signal = new MapSignal(new NodeCollector(blocksToDestroy));
 		signal.destroyLoopedNodes = false;
 		signal.trackVisited = true;
 		branch.analyse(treeState, world, treePos, null, signal);
 		BlockBranch.destroyMode = EnumDestroyMode.IGNORE;
-		for (BlockPos pos : blocksToDestroy) {
+		for (long packed : blocksToDestroy.toArray()) {
+			BlockPos pos = BlockPos.fromLong(packed);
 			if (safeBounds.inBounds(pos, false)) {
 				IBlockState branchState = world.getBlockState(pos);
 				Optional<BlockBranch> branchBlock = TreeHelper.getBranchOpt(branchState);
@@ -271,8 +316,10 @@ public class JoCode {
 						if (leavesProperties != LeavesProperties.NULLPROPERTIES) {
 							SimpleVoxmap leafCluster = leavesProperties.getCellKit().getLeafCluster();
 							if (leafCluster != LeafClusters.NULLMAP) {
-								for (Cell cell : leafCluster.getAllNonZeroCells()) {
-									BlockPos delPos = pos.add(cell.getPos());
+								CompiledVoxmap cluster = CompiledVoxmap.of(leafCluster);
+								MutableBlockPos delPos = new MutableBlockPos();
+								for (int i = 0; i < cluster.size(); i++) {
+									cluster.getPos(i, pos, delPos);
 									if (safeBounds.inBounds(delPos, false)) {
 										IBlockState leavesState = world.getBlockState(delPos);
 										if (TreeHelper.isLeaves(leavesState)) {
@@ -341,6 +388,26 @@ public class JoCode {
 		return codePos;
 	}
 
+	/**
+	 * Same as {@link #generateFork(World, Species, int, BlockPos, boolean)} from the start of the code but runs the
+	 * compiled placement for the current facing instead of interpreting the instructions.
+	 *
+	 * @param world   The world
+	 * @param species The species
+	 * @param rootPos The position of the rooty dirt
+	 */
+	protected void generateBranches(World world, Species species, BlockPos rootPos) {
+		BranchProgram program = getProgram(facingNum);
+		for (int i = 0; i < program.size; ) {
+			BlockPos pos = rootPos.add(program.x[i], program.y[i], program.z[i]);
+			if (setBlockForGeneration(world, species, pos, EnumFacing.VALUES[program.dirs[i]], careful)) {
+				i = program.skip[i];//The rest of the fork is disabled
+			} else {
+				i++;
+			}
+		}
+	}
+
 	protected boolean setBlockForGeneration(World world, Species species, BlockPos pos, EnumFacing dir, boolean careful) {
 		if (world.getBlockState(pos).getBlock().isReplaceable(world, pos) && (!careful || isClearOfNearbyBranches(world, pos, dir.getOpposite()))) {
 			species.getFamily().getDynamicBranch().setRadius(world, pos, (int) species.getFamily().getPrimaryThickness(), null, careful ? 3 : 2);
@@ -463,6 +530,76 @@ public class JoCode {
 		return encode(instructions);
 	}
 
+	/**
+	 * The branch blocks of a code for one facing as a flat list of steps in the order the instructions place them.  Each
+	 * step holds its offset from the root, the direction it was entered from and the step to go on from if the block
+	 * can't be placed, which is the end of the fork it's in since a blocked fork places nothing more.  The arrays are
+	 * trimmed to the steps once compiled.
+	 */
+	protected static class BranchProgram {
+
+		protected int size;
+		protected short[] x = new short[16];
+		protected short[] y = new short[16];
+		protected short[] z = new short[16];
+		protected byte[] dirs = new byte[16];
+		protected int[] skip = new int[16];
+
+		protected BranchProgram(byte[] instructions, byte[] unfacingMap) {
+			compileFork(instructions, unfacingMap, 0, 0, 0, 0);
+			x = Arrays.copyOf(x, size);
+			y = Arrays.copyOf(y, size);
+			z = Arrays.copyOf(z, size);
+			dirs = Arrays.copyOf(dirs, size);
+			skip = Arrays.copyOf(skip, size);
+		}
+
+		private int compileFork(byte[] instructions, byte[] unfacingMap, int codePos, int px, int py, int pz) {
+			int start = size;
+
+			while (codePos < instructions.length) {
+				int code = unfacingMap[instructions[codePos]];
+				if (code == forkCode) {
+					codePos = compileFork(instructions, unfacingMap, codePos + 1, px, py, pz);
+				} else if (code == returnCode) {
+					codePos++;
+					break;
+				} else {
+					EnumFacing dir = EnumFacing.getFront(code);
+					px += dir.getFrontOffsetX();
+					py += dir.getFrontOffsetY();
+					pz += dir.getFrontOffsetZ();
+					add(px, py, pz, (byte) dir.ordinal());
+					codePos++;
+				}
+			}
+
+			for (int i = start; i < size; i++) {//The steps of this fork that weren't in one of its forks end here
+				if (skip[i] < 0) {
+					skip[i] = size;
+				}
+			}
+
+			return codePos;
+		}
+
+		private void add(int px, int py, int pz, byte dir) {
+			if (size == x.length) {
+				x = Arrays.copyOf(x, size * 2);
+				y = Arrays.copyOf(y, size * 2);
+				z = Arrays.copyOf(z, size * 2);
+				dirs = Arrays.copyOf(dirs, size * 2);
+				skip = Arrays.copyOf(skip, size * 2);
+			}
+			x[size] = (short) px;
+			y[size] = (short) py;
+			z[size] = (short) pz;
+			dirs[size] = dir;
+			skip[size++] = -1;
+		}
+
+	}
+
 	/**
 	 * A tidy class for handling byte code adding and conversion to byte array
 	 */
@@ -7,6 +7,8 @@ import net.minecraft.util.math.MathHelper;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Random;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -34,6 +36,13 @@ public class JoCodeStore {
 		return store.get(radius - 2);
 	}
 
+	/**
+	 * @return The codes stored for a radius.  Not to be modified
+	 */
+	public List<JoCode> getCodes(int radius) {
+		return Collections.unmodifiableList(getListForRadius(radius));
+	}
+
 	public void addCodesFromFile(Species species, String filename) {
 		try {
 			Logger.getLogger(ModConstants.MODID).log(Level.CONFIG, "Loading Tree Codes for species \"" + species + "\" from file: " + filename);
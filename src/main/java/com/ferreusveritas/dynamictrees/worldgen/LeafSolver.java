@@ -0,0 +1,176 @@
+package com.ferreusveritas.dynamictrees.worldgen;
+
+import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.api.cells.ICellKit;
+import com.ferreusveritas.dynamictrees.api.treedata.ILeavesProperties;
+import com.ferreusveritas.dynamictrees.cells.CellKits.BasicSolver;
+import com.ferreusveritas.dynamictrees.util.LongMap;
+import com.ferreusveritas.dynamictrees.util.SafeChunkBounds;
+import com.ferreusveritas.dynamictrees.util.SectionBlockAccess;
+import com.ferreusveritas.dynamictrees.util.SimpleVoxmap;
+import com.ferreusveritas.dynamictrees.util.SimpleVoxmap.Cell;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+import java.util.Arrays;
+
+/**
+ * Settles the hydration of a generated tree's leaves in its leaf map instead of placing the leaves and aging them in
+ * the world.
+ * <p>
+ * The leaves that can be placed are found first.  Then the neighbors of every leaf that aren't leaves of the map
+ * (branches, other trees, air) are read from the world once and packed.  The cell kit's solver is run over the leaves
+ * in the map until nothing changes.  Leaves that dry out are dropped and only the final leaves are set in the world.
+ * <p>
+ * Not the same result as aging the volume in the world with light checks disabled(as worldgen does): no new leaves are
+ * grown so smothered leaves aren't grown back, the leaves are solved until they settle rather than for the species'
+ * worldgen age iterations, and the leaves block's own aging(new leaves properties handlers, overridden age methods) is
+ * skipped.  Off by default for that reason.  {@link com.ferreusveritas.dynamictrees.command.CommandLeafSolverCheck}
+ * counts the differences on a species' stored codes.  Only cell kits with the {@link BasicSolver} itself are supported.
+ */
+public class LeafSolver {
+
+	private static final int MAXITERATIONS = 16;
+
+	//Statistics
+	private static long solves;
+	private static long totalIterations;
+	private static int maxIterations;
+	private static long unconverged;
+
+	/**
+	 * Solve and place the leaves of a leaf map.
+	 *
+	 * @param world      The world
+	 * @param leafMap    The voxel map of the tree. Leaves hydration in the lower 4 bits. Updated with the final leaves
+	 * @param leavesProp The leaves properties of the tree
+	 * @param safeBounds The bounds that may be written to
+	 * @param flags      The block update flags to set the leaves with
+	 * @return The number of iterations it took to settle or -1 if the cell kit isn't supported and nothing was done
+	 */
+	public static int solve(World world, SimpleVoxmap leafMap, ILeavesProperties leavesProp, SafeChunkBounds safeBounds, int flags) {
+		ICellKit kit = leavesProp.getCellKit();
+		if (kit.getCellSolver().getClass() != BasicSolver.class) {//Subclasses may solve differently
+			return -1;
+		}
+		BasicSolver solver = (BasicSolver) kit.getCellSolver();
+
+		//Find the leaves that can be placed
+		int numLeaves = 0;
+		long[] positions = new long[64];
+		byte[] hydros = new byte[64];
+		boolean[] ageable = new boolean[64];
+		LongMap<int[]> indexes = new LongMap<>(128);
+		for (Cell cell : leafMap.getAllNonZeroCells((byte) 0x0F)) {
+			BlockPos pos = cell.getPos();
+			IBlockState state = world.getBlockState(pos);
+			if (!safeBounds.inBounds(pos, false) || !state.getBlock().isReplaceable(world, pos)) {
+				leafMap.setVoxel(pos, (byte) 0);
+				continue;
+			}
+			if (numLeaves == positions.length) {
+				positions = Arrays.copyOf(positions, numLeaves * 2);
+				hydros = Arrays.copyOf(hydros, numLeaves * 2);
+				ageable = Arrays.copyOf(ageable, numLeaves * 2);
+			}
+			positions[numLeaves] = pos.toLong();
+			hydros[numLeaves] = (byte) (cell.getValue() & 0x0F);
+			ageable[numLeaves] = safeBounds.inBounds(pos, true);//Only leaves whose neighbors can all be read are aged
+			indexes.put(positions[numLeaves], new int[]{numLeaves});
+			numLeaves++;
+		}
+
+		//Pack the neighbors that won't change and link the ones that are leaves of the map
+		int[] fixed = new int[numLeaves];
+		int[][] linked = new int[numLeaves][];
+		for (int i = 0; i < numLeaves; i++) {
+			if (!ageable[i]) {
+				continue;
+			}
+			BlockPos pos = BlockPos.fromLong(positions[i]);
+			linked[i] = new int[6];
+			for (EnumFacing dir : EnumFacing.VALUES) {
+				BlockPos deltaPos = pos.offset(dir);
+				int[] index = indexes.get(deltaPos.toLong());
+				if (index != null) {
+					linked[i][dir.ordinal()] = index[0];
+				} else {
+					linked[i][dir.ordinal()] = -1;
+					IBlockState state = world.getBlockState(deltaPos);
+					int value = TreeHelper.getTreePart(state).getHydrationCell(world, deltaPos, state, dir, leavesProp).getValueFromSide(dir.getOpposite());
+					fixed[i] |= (value & 15) << (dir.ordinal() << 2);
+				}
+			}
+		}
+
+		//Run the automaton in place until it settles
+		int iterations = 0;
+		boolean changed = true;
+		while (changed && iterations < MAXITERATIONS) {
+			changed = false;
+			iterations++;
+			for (int i = 0; i < numLeaves; i++) {
+				if (!ageable[i] || hydros[i] == 0) {
+					continue;
+				}
+				int packed = fixed[i];
+				for (EnumFacing dir : EnumFacing.VALUES) {
+					int n = linked[i][dir.ordinal()];
+					if (n != -1) {
+						packed |= (kit.getCellForLeaves(hydros[n]).getValueFromSide(dir.getOpposite()) & 15) << (dir.ordinal() << 2);
+					}
+				}
+				int hydro = solver.solvePacked(packed);
+				if (hydro != hydros[i]) {
+					hydros[i] = (byte) hydro;
+					changed = true;
+				}
+			}
+		}
+
+		//Place the survivors
+		for (int i = 0; i < numLeaves; i++) {
+			BlockPos pos = BlockPos.fromLong(positions[i]);
+			if (hydros[i] > 0) {
+				SectionBlockAccess.setBlockState(world, pos, leavesProp.getDynamicLeavesState(hydros[i]), flags);
+			}
+			leafMap.setVoxel(pos, ageable[i] ? hydros[i] : 0);//Keep the map to what aging would have left in it
+		}
+
+		solves++;
+		totalIterations += iterations;
+		maxIterations = Math.max(maxIterations, iterations);
+		if (changed) {
+			unconverged++;
+		}
+
+		return iterations;
+	}
+
+	public static long getSolves() {
+		return solves;
+	}
+
+	public static float getAverageIterations() {
+		return solves > 0 ? (float) totalIterations / solves : 0;
+	}
+
+	public static int getMaxIterations() {
+		return maxIterations;
+	}
+
+	/**
+	 * @return The number of trees that were still changing after the maximum number of iterations
+	 */
+	public static long getUnconverged() {
+		return unconverged;
+	}
+
+	public static void resetCounters() {
+		solves = totalIterations = unconverged = 0;
+		maxIterations = 0;
+	}
+
+}
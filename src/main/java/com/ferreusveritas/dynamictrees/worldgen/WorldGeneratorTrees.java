@@ -27,32 +27,57 @@ import java.util.function.Predicate;
 
 public class WorldGeneratorTrees implements IWorldGenerator {
 
+	/**
+	 * Finds the ground for the discs of a chunk.  Meant to be used for all of the discs of one chunk so the chunks of the
+	 * 2x2 area the discs are placed in are only looked up once.  The columns are read straight from the chunks.
+	 */
 	public static class GroundFinder implements IGroundFinder {
 
+		private final Chunk[] chunks = new Chunk[4];//The last few chunks searched.  Discs of a chunk land in 2x2 chunks
+
+		/**
+		 * Get the chunk of a position from the chunks searched already if possible.
+		 */
+		protected Chunk getChunk(World world, BlockPos pos) {
+			int chunkX = pos.getX() >> 4;
+			int chunkZ = pos.getZ() >> 4;
+			int slot = (chunkX & 1) | (chunkZ & 1) << 1;
+			Chunk chunk = chunks[slot];
+			if (chunk == null || chunk.x != chunkX || chunk.z != chunkZ || chunk.getWorld() != world) {
+				chunk = chunks[slot] = world.getChunkFromChunkCoords(chunkX, chunkZ);
+			}
+			return chunk;
+		}
+
 		protected boolean inNetherRange(BlockPos pos) {
 			return pos.getY() >= 0 && pos.getY() <= 128;
 		}
 
 		protected boolean isReplaceable(World world, BlockPos pos) {
-			return world.getBlockState(pos).getBlock().isReplaceable(world, pos) && !world.getBlockState(pos).getMaterial().isLiquid();
+			return isReplaceable(world, world.getBlockState(pos), pos);
+		}
+
+		protected boolean isReplaceable(World world, IBlockState state, BlockPos pos) {
+			return state.getBlock().isReplaceable(world, pos) && !state.getMaterial().isLiquid();
 		}
 
 		protected ArrayList<Integer> findSubterraneanLayerHeights(World world, BlockPos start) {
 
+			Chunk chunk = getChunk(world, start);//The whole column is in the one chunk
 			MutableBlockPos pos = new MutableBlockPos(new BlockPos(start.getX(), 0, start.getZ()));
 
 			ArrayList<Integer> layers = new ArrayList();
 
 			while (inNetherRange(pos)) {
-				while (!isReplaceable(world, pos) && inNetherRange(pos)) {
+				while (!isReplaceable(world, chunk.getBlockState(pos), pos) && inNetherRange(pos)) {
 					pos.move(EnumFacing.UP, 4);
 				} //Zip up 4 blocks at a time until we hit air
-				while (isReplaceable(world, pos) && inNetherRange(pos)) {
+				while (isReplaceable(world, chunk.getBlockState(pos), pos) && inNetherRange(pos)) {
 					pos.move(EnumFacing.DOWN);
 				} //Move down 1 block at a time until we hit not-air
 				layers.add(pos.getY()); //Record this position
 				pos.move(EnumFacing.UP, 16); //Move up 16 blocks
-				while (isReplaceable(world, pos) && inNetherRange(pos)) {
+				while (isReplaceable(world, chunk.getBlockState(pos), pos) && inNetherRange(pos)) {
 					pos.move(EnumFacing.UP, 4);
 				} //Zip up 4 blocks at a time until we hit ground
 			}
@@ -81,9 +106,15 @@ public class WorldGeneratorTrees implements IWorldGenerator {
 
 		protected BlockPos findOverworldGround(World world, BlockPos start) {
 
-			Chunk chunk = world.getChunkFromBlockCoords(start);//We'll use a chunk for the search so we don't have to keep looking up the chunk for every block
+			Chunk chunk = getChunk(world, start);//We'll use a chunk for the search so we don't have to keep looking up the chunk for every block
 
-			MutableBlockPos mPos = new MutableBlockPos(world.getHeight(start)).move(EnumFacing.UP, 2);//Mutable allows us to change the test position easily
+			//Nothing at or above the precipitation height blocks movement or is liquid so the ground can't be up there
+			int top = chunk.getHeightValue(start.getX() & 15, start.getZ() & 15) + 2;
+			int rain = chunk.getPrecipitationHeight(start).getY();
+			if (rain > 0) {//Below zero if nothing was found above the bottom block, which isn't checked
+				top = Math.min(top, rain - 1);
+			}
+			MutableBlockPos mPos = new MutableBlockPos(start.getX(), top, start.getZ());//Mutable allows us to change the test position easily
 			while (inOverworldRange(mPos)) {
 
 				IBlockState state = chunk.getBlockState(mPos);
@@ -149,7 +180,8 @@ public class WorldGeneratorTrees implements IWorldGenerator {
 		BiomeDataBase dbase = treeGenerator.getBiomeDataBase(world);
 		if (dbase != TreeGenerator.DIMENSIONBLACKLISTED) {
 			SafeChunkBounds safeBounds = new SafeChunkBounds(world, new ChunkPos(chunkX, chunkZ));//Area that is safe to place blocks during worldgen
-			treeGenerator.getCircleProvider().getPoissonDiscs(world, chunkX, 0, chunkZ).forEach(c -> treeGenerator.makeTree(world, dbase, c, new GroundFinder(), safeBounds));
+			GroundFinder groundFinder = new GroundFinder();//Shared by the discs of the chunk
+			treeGenerator.getCircleProvider().getPoissonDiscs(world, chunkX, 0, chunkZ).forEach(c -> treeGenerator.makeTree(world, dbase, c, groundFinder, safeBounds));
 		}
 	}
 